@@ -1,10 +1,12 @@
 package xyz.immortius.chunkbychunk.common;
 
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelAccessor;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 import xyz.immortius.chunkbychunk.server.world.SpawnChunkHelper;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
 
@@ -18,7 +20,7 @@ public final class CommonEventHandler {
 
     /**
      * This method determines whether block placement is allowed. It is called when a block is placed on both server
-     * and client
+     * and client. The client answers from its mirror of the server's spawned chunks where possible.
      * @param pos The block position where placement is being attempted.
      * @param playerEntity The player placing the block
      * @param level The level the block is being placed in
@@ -27,6 +29,16 @@ public final class CommonEventHandler {
     public static boolean isBlockPlacementAllowed(BlockPos pos, Entity playerEntity, LevelAccessor level) {
         return ChunkByChunkConfig.get().getGameplayConfig().isBlockPlacementAllowedOutsideSpawnedChunks() ||
                 !playerEntity.getLevel().dimension().equals(Level.OVERWORLD) ||
-                !SpawnChunkHelper.isEmptyChunk(level, new ChunkPos(pos));
+                isSpawnedChunk(playerEntity.getLevel().dimension(), level, new ChunkPos(pos));
+    }
+
+    private static boolean isSpawnedChunk(ResourceKey<Level> dimension, LevelAccessor level, ChunkPos chunkPos) {
+        if (level.isClientSide()) {
+            Boolean spawned = SpawnedChunksMirror.isSpawned(dimension, chunkPos);
+            if (spawned != null) {
+                return spawned;
+            }
+        }
+        return !SpawnChunkHelper.isEmptyChunk(level, chunkPos);
     }
 }
@@ -8,26 +8,88 @@ import net.minecraft.world.ContainerHelper;
 import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.entity.RandomizableContainerBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
 import xyz.immortius.chunkbychunk.common.menus.BedrockChestMenu;
+import xyz.immortius.chunkbychunk.common.util.BlockChangeListener;
+import xyz.immortius.chunkbychunk.common.util.CompiledBlockPredicate;
+import xyz.immortius.chunkbychunk.common.util.PaletteScanner;
 import xyz.immortius.chunkbychunk.interop.Services;
 
 /**
  * Entity for the Bedrock Chest Block. It is a chest with a single item slot.
+ * <p>
+ * The entity keeps count of the blocks remaining above it in its chunk, which must be cleared for the chest to open.
+ * The count is taken from the section palettes when first needed, and then kept up to date from the block changes in
+ * the chunk.
  */
-public class BedrockChestBlockEntity extends RandomizableContainerBlockEntity {
+public class BedrockChestBlockEntity extends RandomizableContainerBlockEntity implements BlockChangeListener {
 
     public static final int COLUMNS = 1;
     public static final int ROWS = 1;
     public static final int CONTAINER_SIZE = COLUMNS * ROWS;
 
+    // TODO: Improve this algorithm, probably pull blocks in via tag like stone and soil
+    private static final CompiledBlockPredicate COUNTED_BLOCKS = CompiledBlockPredicate.of(state -> {
+        Block block = state.getBlock();
+        return !(block instanceof AirBlock) &&
+                !(block instanceof LiquidBlock) &&
+                !(block instanceof LadderBlock) &&
+                !(block instanceof LeavesBlock) &&
+                block != Blocks.GLOW_LICHEN &&
+                block != Blocks.VINE &&
+                !(block instanceof TorchBlock);
+    });
+
     private NonNullList<ItemStack> items = NonNullList.withSize(1, ItemStack.EMPTY);
+    private int remainingBlocks = -1;
 
     public BedrockChestBlockEntity(BlockPos pos, BlockState state) {
         super(Services.PLATFORM.bedrockChestEntity(), pos, state);
     }
 
+    /**
+     * @return The number of blocks above the chest in its chunk that must be cleared for it to open
+     */
+    public int getRemainingBlocks() {
+        if (remainingBlocks < 0 && level != null) {
+            remainingBlocks = countBlocksAbove(level.getChunkAt(worldPosition), worldPosition.getY());
+        }
+        return Math.max(remainingBlocks, 0);
+    }
+
+    @Override
+    public void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState) {
+        if (remainingBlocks >= 0 && pos.getY() > worldPosition.getY()) {
+            remainingBlocks += (COUNTED_BLOCKS.test(newState) ? 1 : 0) - (COUNTED_BLOCKS.test(oldState) ? 1 : 0);
+        }
+    }
+
+    private static int countBlocksAbove(LevelChunk chunk, int aboveY) {
+        int chestSectionIndex = chunk.getSectionIndex(aboveY);
+        LevelChunkSection[] sections = chunk.getSections();
+        int count = 0;
+        if (!sections[chestSectionIndex].hasOnlyAir()) {
+            // Only the layers above the chest count in its own section, and section indices are ordered by y, z, x
+            int firstIndex = ((aboveY & 15) + 1) << 8;
+            count += PaletteScanner.matching(sections[chestSectionIndex].getStates(), COUNTED_BLOCKS).get(firstIndex, 4096).cardinality();
+        }
+        int[] sectionCount = new int[1];
+        for (int i = chestSectionIndex + 1; i < sections.length; i++) {
+            if (!sections[i].hasOnlyAir()) {
+                PaletteScanner.count(sections[i].getStates(), (state, stateCount) -> {
+                    if (COUNTED_BLOCKS.test(state)) {
+                        sectionCount[0] += stateCount;
+                    }
+                });
+            }
+        }
+        return count + sectionCount[0];
+    }
+
     @Override
     protected NonNullList<ItemStack> getItems() {
         return this.items;
@@ -6,12 +6,10 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.phys.BlockHitResult;
 import xyz.immortius.chunkbychunk.common.blockEntities.BedrockChestBlockEntity;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
@@ -44,7 +42,7 @@ public class BedrockChestBlock extends BaseEntityBlock {
         } else {
             BlockEntity blockentity = level.getBlockEntity(pos);
             if (blockentity instanceof BedrockChestBlockEntity bedrockChestBlockEntity) {
-                int blockCount = getBlockCount(level, new ChunkPos(pos), pos.getY());
+                int blockCount = bedrockChestBlockEntity.getRemainingBlocks();
                 if (blockCount <= ChunkByChunkConfig.get().getBedrockChest().getBedrockChestBlocksRemainingThreshold()) {
                     player.openMenu(bedrockChestBlockEntity);
                 } else {
@@ -58,27 +56,4 @@ public class BedrockChestBlock extends BaseEntityBlock {
         }
     }
 
-    private static int getBlockCount(Level level, ChunkPos chunkPos, int aboveY) {
-        LevelChunk chunk = level.getChunk(chunkPos.x, chunkPos.z);
-        int count = 0;
-        for (int x = chunkPos.getMinBlockX(); x < chunkPos.getMaxBlockX(); x++) {
-            for (int y = aboveY + 1; y < level.getMaxBuildHeight(); y++) {
-                for (int z = chunkPos.getMinBlockZ(); z < chunkPos.getMaxBlockZ(); z++) {
-                    Block block = chunk.getBlockState(new BlockPos(x, y, z)).getBlock();
-                    // TODO: Improve this algorithm, probably pull blocks in via tag like stone and soil
-                    if (!(block instanceof AirBlock) &&
-                            !(block instanceof LiquidBlock) &&
-                            !(block instanceof LadderBlock) &&
-                            !(block instanceof LeavesBlock) &&
-                            block != Blocks.GLOW_LICHEN &&
-                            block != Blocks.VINE &&
-                            !(block instanceof TorchBlock)) {
-                        count++;
-                    }
-                }
-            }
-        }
-        return count;
-    }
-
 }
@@ -34,6 +34,10 @@ public class SkyDimensionData {
     public String unspawnedBiome = "";
     /** The number of chunks to be spawned initally */
     public int initialChunks = 1;
+    /** Should the generation dimension (and any theme dimensions) be kept out of the save. Chunks are regenerated from the world seed as needed */
+    public boolean ephemeralGenDimension = false;
+    /** For sealed generation, how many chunks beyond the spawned area unspawned chunks are generated with their full surface. Beyond this a flat placeholder seal is generated, which skips sampling the surface - placeholder chunks are still loaded, tracked and sent to players like any other chunk. -1 to always generate the full surface */
+    public int unspawnedDetailMargin = -1;
     /** Configuration for dimensions that will trigger chunk spawns in this dimension */
     public List<String> synchToDimensions = new ArrayList<>();
 
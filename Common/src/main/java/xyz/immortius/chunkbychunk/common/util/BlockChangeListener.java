@@ -0,0 +1,17 @@
+package xyz.immortius.chunkbychunk.common.util;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * A block entity that is notified of every block change in its (server side) chunk
+ */
+public interface BlockChangeListener {
+
+    /**
+     * @param pos The position of the changed block
+     * @param oldState The previous state of the block
+     * @param newState The new state of the block
+     */
+    void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState);
+}
@@ -0,0 +1,82 @@
+package xyz.immortius.chunkbychunk.common.util;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An index of the block states in a chunk - for each section, the number of each block state in it. Sections are counted
+ * the first time they are queried and invalidated when a block in them changes, so repeated block counts of a chunk
+ * don't need to rescan it. The index is not saved - it is rebuilt as sections are queried after the chunk is loaded.
+ */
+public final class ChunkComposition {
+
+    private final ChunkAccess chunk;
+    private final Int2IntOpenHashMap[] sectionCounts;
+
+    public ChunkComposition(ChunkAccess chunk) {
+        this.chunk = chunk;
+        this.sectionCounts = new Int2IntOpenHashMap[chunk.getSectionsCount()];
+    }
+
+    /**
+     * @param predicate The predicate blocks must match to be counted
+     * @return The number of blocks in the chunk matching the predicate
+     */
+    public synchronized int count(Predicate<BlockState> predicate) {
+        int count = 0;
+        for (int index = 0; index < sectionCounts.length; index++) {
+            for (Int2IntMap.Entry entry : getSectionCounts(index).int2IntEntrySet()) {
+                if (predicate.test(Block.stateById(entry.getIntKey()))) {
+                    count += entry.getIntValue();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param predicates The predicates to count matching blocks for
+     * @return The number of blocks in the chunk matching each predicate, in the order of the predicates
+     */
+    public synchronized int[] count(List<Predicate<BlockState>> predicates) {
+        int[] counts = new int[predicates.size()];
+        for (int index = 0; index < sectionCounts.length; index++) {
+            for (Int2IntMap.Entry entry : getSectionCounts(index).int2IntEntrySet()) {
+                BlockState state = Block.stateById(entry.getIntKey());
+                for (int i = 0; i < counts.length; i++) {
+                    if (predicates.get(i).test(state)) {
+                        counts[i] += entry.getIntValue();
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Invalidates the counts of a section, after a block in it has changed
+     * @param sectionIndex The index of the section
+     */
+    public synchronized void invalidate(int sectionIndex) {
+        if (sectionIndex >= 0 && sectionIndex < sectionCounts.length) {
+            sectionCounts[sectionIndex] = null;
+        }
+    }
+
+    private Int2IntOpenHashMap getSectionCounts(int index) {
+        Int2IntOpenHashMap counts = sectionCounts[index];
+        if (counts == null) {
+            Int2IntOpenHashMap newCounts = new Int2IntOpenHashMap();
+            PaletteScanner.count(chunk.getSections()[index].getStates(), (state, count) -> newCounts.addTo(Block.getId(state), count));
+            counts = newCounts;
+            sectionCounts[index] = counts;
+        }
+        return counts;
+    }
+}
@@ -2,11 +2,16 @@ package xyz.immortius.chunkbychunk.common.util;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.tags.TagKey;
-import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import org.apache.commons.lang3.mutable.MutableInt;
 
+import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Utility methods for working with chunks
@@ -17,20 +22,48 @@ public final class ChunkUtil {
     }
 
     /**
-     * Finds a safe spawn height by finding the first solid block down from the sky. (This won't work well
+     * Finds a safe spawn height by finding the first solid block down from the sky. Where the chunk has a world surface
+     * heightmap the search starts from the top block of the column rather than the top of the world, as everything above
+     * it is air.
      * @param chunk The chunk to check
      * @param x The x coord
      * @param z The z coord
      * @return A y coord that is available for spawns
      */
     public static int getSafeSpawnHeight(ChunkAccess chunk, int x, int z) {
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(x,chunk.getMaxBuildHeight() - 1,z);
-        // Find some space first
-        while (pos.getY() > chunk.getMinBuildHeight()) {
-            if (chunk.getBlockState(pos).getBlock().isPossibleToRespawnInThis()) {
-                break;
+        return getSafeSpawnHeight(chunk, new BlockPos.MutableBlockPos(), x, z);
+    }
+
+    /**
+     * Finds safe spawn heights for every column of a chunk
+     * @param chunk The chunk to check
+     * @return A y coord that is available for spawns for each column of the chunk, indexed by x + z * 16
+     */
+    public static int[] getSafeSpawnHeights(ChunkAccess chunk) {
+        int[] result = new int[16 * 16];
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                result[x + z * 16] = getSafeSpawnHeight(chunk, pos, chunk.getPos().getMinBlockX() + x, chunk.getPos().getMinBlockZ() + z);
+            }
+        }
+        return result;
+    }
+
+    private static int getSafeSpawnHeight(ChunkAccess chunk, BlockPos.MutableBlockPos pos, int x, int z) {
+        pos.set(x, chunk.getMaxBuildHeight() - 1, z);
+        int surface = chunk.hasPrimedHeightmap(Heightmap.Types.WORLD_SURFACE) ? chunk.getHeight(Heightmap.Types.WORLD_SURFACE, x, z) + 1 : chunk.getMaxBuildHeight();
+        if (surface < chunk.getMaxBuildHeight()) {
+            // The surface is air, so there is already space
+            pos.setY(surface);
+        } else {
+            // Find some space first
+            while (pos.getY() > chunk.getMinBuildHeight()) {
+                if (chunk.getBlockState(pos).getBlock().isPossibleToRespawnInThis()) {
+                    break;
+                }
+                pos.setY(pos.getY() - 1);
             }
-            pos.setY(pos.getY() - 1);
         }
         // Now find the ground
         while (pos.getY() > chunk.getMinBuildHeight()) {
@@ -54,19 +87,7 @@ public final class ChunkUtil {
         if (blocks.size() == 1) {
             return countBlocks(chunk, blocks.stream().findFirst().get());
         }
-        ChunkPos chunkPos = chunk.getPos();
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(0,0,0);
-        int count = 0;
-        for (pos.setX(chunkPos.getMinBlockX()); pos.getX() <= chunkPos.getMaxBlockX(); pos.setX(pos.getX() + 1)) {
-            for (pos.setY(chunk.getMinBuildHeight()); pos.getY() <= chunk.getMaxBuildHeight() - 1; pos.setY(pos.getY() + 1)) {
-                for (pos.setZ(chunkPos.getMinBlockZ()); pos.getZ() <= chunkPos.getMaxBlockZ(); pos.setZ(pos.getZ() + 1)) {
-                    if (blocks.contains(chunk.getBlockState(pos).getBlock())) {
-                        count++;
-                    }
-                }
-            }
-        }
-        return count;
+        return countBlocks(chunk, matches(blocks));
     }
 
     /**
@@ -75,19 +96,7 @@ public final class ChunkUtil {
      * @return The number of matching blocks
      */
     public static int countBlocks(ChunkAccess chunk, Block block) {
-        ChunkPos chunkPos = chunk.getPos();
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(0,0,0);
-        int count = 0;
-        for (pos.setX(chunkPos.getMinBlockX()); pos.getX() <= chunkPos.getMaxBlockX(); pos.setX(pos.getX() + 1)) {
-            for (pos.setY(chunk.getMinBuildHeight()); pos.getY() <= chunk.getMaxBuildHeight() - 1; pos.setY(pos.getY() + 1)) {
-                for (pos.setZ(chunkPos.getMinBlockZ()); pos.getZ() <= chunkPos.getMaxBlockZ(); pos.setZ(pos.getZ() + 1)) {
-                    if (chunk.getBlockState(pos).getBlock() == block) {
-                        count++;
-                    }
-                }
-            }
-        }
-        return count;
+        return countBlocks(chunk, matches(block));
     }
 
     /**
@@ -96,19 +105,81 @@ public final class ChunkUtil {
      * @return The number of matching blocks
      */
     public static int countBlocks(ChunkAccess chunk, TagKey<Block> blockTag) {
-        ChunkPos chunkPos = chunk.getPos();
-        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(0,0,0);
+        return countBlocks(chunk, matches(blockTag));
+    }
+
+    /**
+     * Counts blocks a section at a time. Sections whose palette has no matching state are skipped, and otherwise the
+     * predicate is tested once per palette entry rather than once per block. Chunks with a block composition index are
+     * counted from the index instead.
+     * @param chunk The chunk to check
+     * @param predicate The predicate blocks must match to be counted
+     * @return The number of matching blocks
+     */
+    public static int countBlocks(ChunkAccess chunk, Predicate<BlockState> predicate) {
+        if (chunk instanceof IndexedChunk indexedChunk) {
+            return indexedChunk.getBlockComposition().count(predicate);
+        }
+        MutableInt count = new MutableInt();
+        for (LevelChunkSection section : chunk.getSections()) {
+            if (section.maybeHas(predicate)) {
+                PaletteScanner.count(section.getStates(), (state, stateCount) -> {
+                    if (predicate.test(state)) {
+                        count.add(stateCount);
+                    }
+                });
+            }
+        }
+        return count.intValue();
+    }
 
-        int count = 0;
-        for (pos.setX(chunkPos.getMinBlockX()); pos.getX() <= chunkPos.getMaxBlockX(); pos.setX(pos.getX() + 1)) {
-            for (pos.setY(chunk.getMinBuildHeight()); pos.getY() <= chunk.getMaxBuildHeight(); pos.setY(pos.getY() + 1)) {
-                for (pos.setZ(chunkPos.getMinBlockZ()); pos.getZ() <= chunkPos.getMaxBlockZ(); pos.setZ(pos.getZ() + 1)) {
-                    if (chunk.getBlockState(pos).is(blockTag)) {
-                        count++;
+    /**
+     * Counts blocks matching each of several predicates in a single pass over the chunk's section palettes
+     * @param chunk The chunk to check
+     * @param predicates The predicates to count matching blocks for
+     * @return The number of blocks matching each predicate, in the order of the predicates
+     */
+    public static int[] countBlocks(ChunkAccess chunk, List<Predicate<BlockState>> predicates) {
+        if (chunk instanceof IndexedChunk indexedChunk) {
+            return indexedChunk.getBlockComposition().count(predicates);
+        }
+        int[] counts = new int[predicates.size()];
+        for (LevelChunkSection section : chunk.getSections()) {
+            if (predicates.stream().anyMatch(section::maybeHas)) {
+                PaletteScanner.count(section.getStates(), (state, stateCount) -> {
+                    for (int i = 0; i < counts.length; i++) {
+                        if (predicates.get(i).test(state)) {
+                            counts[i] += stateCount;
+                        }
                     }
-                }
+                });
             }
         }
-        return count;
+        return counts;
+    }
+
+    /**
+     * @param block A block
+     * @return A predicate matching states of the block
+     */
+    public static Predicate<BlockState> matches(Block block) {
+        return state -> state.is(block);
+    }
+
+    /**
+     * @param blocks A set of blocks
+     * @return A compiled predicate matching states of any of the blocks
+     */
+    public static Predicate<BlockState> matches(Set<Block> blocks) {
+        Set<Block> blockSet = Set.copyOf(blocks);
+        return CompiledBlockPredicate.shared(blockSet, () -> state -> blockSet.contains(state.getBlock()));
+    }
+
+    /**
+     * @param blockTag A block tag
+     * @return A compiled predicate matching states of blocks in the tag
+     */
+    public static Predicate<BlockState> matches(TagKey<Block> blockTag) {
+        return CompiledBlockPredicate.shared(blockTag, () -> state -> state.is(blockTag));
     }
 }
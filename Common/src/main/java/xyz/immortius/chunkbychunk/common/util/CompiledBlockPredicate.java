@@ -0,0 +1,82 @@
+package xyz.immortius.chunkbychunk.common.util;
+
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A block state predicate compiled into a set of matching block state ids, so testing a state is a single bit lookup.
+ * The predicate is compiled when first tested, and compiled again after block tags are rebound or data is reloaded.
+ * <p>
+ * Compiling tests every registered block state, so compiled predicates are only worthwhile when reused - shared compiled
+ * predicates are available by key for this.
+ */
+public final class CompiledBlockPredicate implements Predicate<BlockState> {
+
+    private static final AtomicInteger GENERATION = new AtomicInteger();
+    private static final Map<Object, CompiledBlockPredicate> SHARED = new ConcurrentHashMap<>();
+
+    private final Predicate<BlockState> source;
+    private volatile Compiled compiled;
+
+    /**
+     * @param source The predicate to compile
+     * @return A compiled form of the predicate
+     */
+    public static CompiledBlockPredicate of(Predicate<BlockState> source) {
+        return new CompiledBlockPredicate(source);
+    }
+
+    /**
+     * @param key A key identifying the predicate. This must be immutable, with value equality.
+     * @param source Supplier of the predicate to compile, if not already shared
+     * @return The shared compiled predicate for the key
+     */
+    public static CompiledBlockPredicate shared(Object key, Supplier<Predicate<BlockState>> source) {
+        return SHARED.computeIfAbsent(key, k -> new CompiledBlockPredicate(source.get()));
+    }
+
+    /**
+     * Causes all compiled predicates to be compiled again when next tested, and drops shared predicates
+     */
+    public static void invalidateAll() {
+        GENERATION.incrementAndGet();
+        SHARED.clear();
+    }
+
+    private CompiledBlockPredicate(Predicate<BlockState> source) {
+        this.source = source;
+    }
+
+    @Override
+    public boolean test(BlockState state) {
+        Compiled current = compiled;
+        int generation = GENERATION.get();
+        if (current == null || current.generation() != generation) {
+            current = compile(generation);
+        }
+        int id = Block.getId(state);
+        return id >= 0 && current.states().get(id);
+    }
+
+    private Compiled compile(int generation) {
+        BitSet states = new BitSet(Block.BLOCK_STATE_REGISTRY.size());
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            if (source.test(state)) {
+                states.set(Block.getId(state));
+            }
+        }
+        Compiled result = new Compiled(generation, states);
+        compiled = result;
+        return result;
+    }
+
+    private record Compiled(int generation, BitSet states) {
+    }
+}
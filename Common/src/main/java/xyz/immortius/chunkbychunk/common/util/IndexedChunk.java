@@ -0,0 +1,12 @@
+package xyz.immortius.chunkbychunk.common.util;
+
+/**
+ * A chunk with an index of its block composition
+ */
+public interface IndexedChunk {
+
+    /**
+     * @return The block composition index of the chunk
+     */
+    ChunkComposition getBlockComposition();
+}
@@ -0,0 +1,134 @@
+package xyz.immortius.chunkbychunk.common.util;
+
+import net.minecraft.util.BitStorage;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.util.ZeroBitStorage;
+import net.minecraft.world.level.chunk.GlobalPalette;
+import net.minecraft.world.level.chunk.MissingPaletteEntryException;
+import net.minecraft.world.level.chunk.Palette;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import xyz.immortius.chunkbychunk.mixins.PalettedContainerAccessor;
+
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/**
+ * Scans the packed palette indices of a paletted container directly. Each storage word is unpacked in turn and its indices
+ * looked up in a small table built from the palette, so values are resolved (or tested) once per palette entry rather than
+ * once per position. Indices outside the palette (from corrupt data) fail with a {@link MissingPaletteEntryException},
+ * as they would when read through the palette.
+ * <p>
+ * Containers using the global palette have a table the size of the whole registry, so are handled by the container
+ * itself instead.
+ */
+public final class PaletteScanner {
+
+    private PaletteScanner() {
+    }
+
+    /**
+     * Counts the occurrences of each value in a container. Equivalent to {@link PalettedContainer#count}.
+     * @param container The container to count
+     * @param consumer Consumer receiving each value with its count
+     */
+    public static <T> void count(PalettedContainer<T> container, PalettedContainer.CountConsumer<T> consumer) {
+        PalettedContainer.Data<T> data = getData(container);
+        if (!isScannable(data)) {
+            container.count(consumer);
+            return;
+        }
+        Palette<T> palette = data.palette();
+        int[] counts = new int[palette.getSize()];
+        BitStorage storage = data.storage();
+        if (storage instanceof ZeroBitStorage) {
+            counts[0] = storage.getSize();
+        } else {
+            long[] raw = storage.getRaw();
+            int bits = storage.getBits();
+            int valuesPerWord = Long.SIZE / bits;
+            long mask = (1L << bits) - 1L;
+            int remaining = storage.getSize();
+            for (long word : raw) {
+                int values = Math.min(valuesPerWord, remaining);
+                for (int i = 0; i < values; i++) {
+                    counts[checkIndex((int) (word & mask), counts.length)]++;
+                    word >>>= bits;
+                }
+                remaining -= values;
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                consumer.accept(palette.valueFor(i), counts[i]);
+            }
+        }
+    }
+
+    /**
+     * @param container The container to scan
+     * @param predicate The predicate values must match
+     * @return The positions (by container index) of the values matching the predicate
+     */
+    public static <T> BitSet matching(PalettedContainer<T> container, Predicate<T> predicate) {
+        PalettedContainer.Data<T> data = getData(container);
+        BitStorage storage = data.storage();
+        BitSet result = new BitSet(storage.getSize());
+        if (!isScannable(data)) {
+            for (int i = 0; i < storage.getSize(); i++) {
+                if (predicate.test(data.palette().valueFor(storage.get(i)))) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+        Palette<T> palette = data.palette();
+        boolean[] matches = new boolean[palette.getSize()];
+        boolean anyMatch = false;
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = predicate.test(palette.valueFor(i));
+            anyMatch |= matches[i];
+        }
+        if (!anyMatch) {
+            return result;
+        }
+        if (storage instanceof ZeroBitStorage) {
+            result.set(0, storage.getSize());
+            return result;
+        }
+        long[] raw = storage.getRaw();
+        int bits = storage.getBits();
+        int valuesPerWord = Long.SIZE / bits;
+        long mask = (1L << bits) - 1L;
+        int index = 0;
+        for (long word : raw) {
+            int values = Math.min(valuesPerWord, storage.getSize() - index);
+            for (int i = 0; i < values; i++) {
+                if (matches[checkIndex((int) (word & mask), matches.length)]) {
+                    result.set(index + i);
+                }
+                word >>>= bits;
+            }
+            index += values;
+        }
+        return result;
+    }
+
+    /**
+     * Checks a stored index is within the palette, failing the same way as looking it up in the palette would
+     */
+    private static int checkIndex(int index, int paletteSize) {
+        if (index >= paletteSize) {
+            throw new MissingPaletteEntryException(index);
+        }
+        return index;
+    }
+
+    private static <T> boolean isScannable(PalettedContainer.Data<T> data) {
+        return !(data.palette() instanceof GlobalPalette) && (data.storage() instanceof SimpleBitStorage || data.storage() instanceof ZeroBitStorage);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PalettedContainer.Data<T> getData(PalettedContainer<T> container) {
+        return ((PalettedContainerAccessor<T>) container).getData();
+    }
+}
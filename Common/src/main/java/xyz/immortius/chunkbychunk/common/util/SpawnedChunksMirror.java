@@ -0,0 +1,110 @@
+package xyz.immortius.chunkbychunk.common.util;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client side mirror of the spawned chunks of each sky dimension, so the client can check whether a chunk is spawned
+ * without looking at its blocks. The server sends every dimension's spawned chunks when a player joins, and then each
+ * chunk as it is spawned. The mirror is cleared when the player leaves, so it never answers for a different world.
+ */
+public final class SpawnedChunksMirror {
+
+    private static final Map<ResourceKey<Level>, Dimension> DIMENSIONS = new ConcurrentHashMap<>();
+
+    private SpawnedChunksMirror() {
+    }
+
+    /**
+     * @param level The dimension
+     * @param pos The chunk position
+     * @return Whether the chunk is spawned, or null if this isn't known by the mirror
+     */
+    @Nullable
+    public static Boolean isSpawned(ResourceKey<Level> level, ChunkPos pos) {
+        Dimension dimension = DIMENSIONS.get(level);
+        if (dimension == null) {
+            return null;
+        }
+        if (dimension.chunks().contains(pos.toLong())) {
+            return true;
+        }
+        return dimension.complete() ? false : null;
+    }
+
+    /**
+     * Clears the mirror, when disconnecting from a server
+     */
+    public static void clear() {
+        DIMENSIONS.clear();
+    }
+
+    /**
+     * A batch of the spawned chunks of a sky dimension. Large dimensions are sent over several batches, to keep each within
+     * the size limit of a packet.
+     * @param level The dimension
+     * @param complete Whether all spawned chunks of the dimension are known once this batch is applied. This is only set on
+     *                 the last batch of a dimension.
+     * @param chunks The spawned chunks in this batch
+     */
+    public record Sync(ResourceKey<Level> level, boolean complete, long[] chunks) {
+
+        public static Sync read(FriendlyByteBuf buf) {
+            return new Sync(buf.readResourceKey(Registries.DIMENSION), buf.readBoolean(), buf.readLongArray());
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeResourceKey(level);
+            buf.writeBoolean(complete);
+            buf.writeLongArray(chunks);
+        }
+
+        public void apply() {
+            // Mirrored sets are updated as chunks spawn, so are synchronized
+            Dimension dimension = DIMENSIONS.computeIfAbsent(level, k -> new Dimension(false, LongSets.synchronize(new LongOpenHashSet())));
+            dimension.chunks().addAll(LongArrayList.wrap(chunks));
+            if (complete) {
+                DIMENSIONS.put(level, new Dimension(true, dimension.chunks()));
+            }
+        }
+    }
+
+    /**
+     * A single newly spawned chunk
+     * @param level The dimension of the chunk
+     * @param chunkPos The chunk position
+     */
+    public record Update(ResourceKey<Level> level, long chunkPos) {
+
+        public static Update read(FriendlyByteBuf buf) {
+            return new Update(buf.readResourceKey(Registries.DIMENSION), buf.readLong());
+        }
+
+        public void write(FriendlyByteBuf buf) {
+            buf.writeResourceKey(level);
+            buf.writeLong(chunkPos);
+        }
+
+        public void apply() {
+            DIMENSIONS.computeIfAbsent(level, k -> new Dimension(false, LongSets.synchronize(new LongOpenHashSet()))).chunks().add(chunkPos);
+        }
+    }
+
+    /**
+     * @param complete Whether all spawned chunks of the dimension are known
+     * @param chunks The spawned chunks
+     */
+    public record Dimension(boolean complete, LongSet chunks) {
+    }
+}
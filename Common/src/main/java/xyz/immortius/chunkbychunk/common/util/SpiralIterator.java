@@ -94,6 +94,10 @@ public class SpiralIterator {
 
 
     public void load(CompoundTag tag) {
+        if (tag.contains("StartX")) {
+            startX = tag.getInt("StartX");
+            startY = tag.getInt("StartY");
+        }
         currentX = tag.getInt("X");
         currentY = tag.getInt("Y");
         direction = tag.getInt("Direction");
@@ -103,6 +107,8 @@ public class SpiralIterator {
 
     public CompoundTag createTag() {
         CompoundTag tag = new CompoundTag();
+        tag.putInt("StartX", startX);
+        tag.putInt("StartY", startY);
         tag.putInt("X", currentX);
         tag.putInt("Y", currentY);
         tag.putInt("Direction", direction);
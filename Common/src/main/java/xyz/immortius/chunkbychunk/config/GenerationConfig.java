@@ -65,6 +65,34 @@ public class GenerationConfig {
     @IntRange(min = 1, max = 512)
     private int chunkLayerSpawnRate = 8;
 
+    @Name("spawn_from_partial_chunks")
+    @Comment("Should chunk spawns start copying blocks once the source chunk and its neighbours have generated their features, rather than waiting for it to be fully generated")
+    private boolean spawnFromPartialChunks = false;
+
+    @Name("random_spawn_pool_size")
+    @Comment("The number of pre-generated chunks to keep ready for unstable chunk spawners")
+    @IntRange(min = 0, max = 16)
+    private int randomSpawnPoolSize = 4;
+
+    @Name("themed_spawn_pool_size")
+    @Comment("The number of pre-generated chunks to keep ready for each biome theme. Pooled chunks spawn faster, but adjacent themed chunks will no longer join up")
+    @IntRange(min = 0, max = 16)
+    private int themedSpawnPoolSize = 0;
+
+    @Name("pregen_max_concurrent_chunks")
+    @Comment("The maximum number of chunks the pregen command will generate at the same time")
+    @IntRange(min = 1, max = 64)
+    private int pregenMaxConcurrentChunks = 8;
+
+    @Name("pregen_pause_tick_time")
+    @Comment("The average tick time (in milliseconds) above which the pregen command pauses")
+    @IntRange(min = 10, max = 1000)
+    private int pregenPauseTickTime = 40;
+
+    @Name("pregen_pause_with_players_online")
+    @Comment("Should the pregen command pause while players are online")
+    private boolean pregenPauseWithPlayersOnline = true;
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -166,4 +194,52 @@ public class GenerationConfig {
     public void setSpawnChunkStrip(boolean spawnChunkStrip) {
         this.spawnChunkStrip = spawnChunkStrip;
     }
+
+    public int getPregenMaxConcurrentChunks() {
+        return pregenMaxConcurrentChunks;
+    }
+
+    public void setPregenMaxConcurrentChunks(int pregenMaxConcurrentChunks) {
+        this.pregenMaxConcurrentChunks = pregenMaxConcurrentChunks;
+    }
+
+    public int getPregenPauseTickTime() {
+        return pregenPauseTickTime;
+    }
+
+    public void setPregenPauseTickTime(int pregenPauseTickTime) {
+        this.pregenPauseTickTime = pregenPauseTickTime;
+    }
+
+    public boolean isPregenPauseWithPlayersOnline() {
+        return pregenPauseWithPlayersOnline;
+    }
+
+    public void setPregenPauseWithPlayersOnline(boolean pregenPauseWithPlayersOnline) {
+        this.pregenPauseWithPlayersOnline = pregenPauseWithPlayersOnline;
+    }
+
+    public int getThemedSpawnPoolSize() {
+        return themedSpawnPoolSize;
+    }
+
+    public void setThemedSpawnPoolSize(int themedSpawnPoolSize) {
+        this.themedSpawnPoolSize = themedSpawnPoolSize;
+    }
+
+    public int getRandomSpawnPoolSize() {
+        return randomSpawnPoolSize;
+    }
+
+    public void setRandomSpawnPoolSize(int randomSpawnPoolSize) {
+        this.randomSpawnPoolSize = randomSpawnPoolSize;
+    }
+
+    public boolean isSpawnFromPartialChunks() {
+        return spawnFromPartialChunks;
+    }
+
+    public void setSpawnFromPartialChunks(boolean spawnFromPartialChunks) {
+        this.spawnFromPartialChunks = spawnFromPartialChunks;
+    }
 }
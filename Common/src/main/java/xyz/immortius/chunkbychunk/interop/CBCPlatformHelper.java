@@ -1,5 +1,6 @@
 package xyz.immortius.chunkbychunk.interop;
 
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.inventory.MenuType;
 import net.minecraft.world.item.BucketItem;
@@ -14,6 +15,7 @@ import xyz.immortius.chunkbychunk.common.menus.BedrockChestMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldForgeMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldMenderMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldScannerMenu;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 
 import java.util.List;
 
@@ -86,4 +88,13 @@ public interface CBCPlatformHelper {
 
     Fluid getFluidContent(BucketItem bucketItem);
 
+    // Networking
+
+    /**
+     * Sends a newly spawned chunk to all connected clients
+     * @param server The server
+     * @param update The spawned chunk
+     */
+    void broadcastSpawnedChunk(MinecraftServer server, SpawnedChunksMirror.Update update);
+
 }
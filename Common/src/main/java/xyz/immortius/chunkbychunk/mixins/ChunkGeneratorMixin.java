@@ -0,0 +1,62 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.world.level.StructureManager;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import xyz.immortius.chunkbychunk.server.world.StructureShare;
+
+/**
+ * Shares structure starts and references between the dimensions generating with a generator, so that each is only
+ * created once.
+ */
+@Mixin(ChunkGenerator.class)
+public abstract class ChunkGeneratorMixin {
+
+    @Inject(method = "createStructures", at = @At("HEAD"), cancellable = true)
+    public void applySharedStarts(RegistryAccess registryAccess, ChunkGeneratorStructureState state, StructureManager structureManager, ChunkAccess chunk, StructureTemplateManager templateManager, CallbackInfo ci) {
+        StructureShare share = StructureShare.getIfShared((ChunkGenerator) (Object) this);
+        if (share != null && share.applyStarts(chunk, createSerializationContext(registryAccess, templateManager), state.getLevelSeed())) {
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "createStructures", at = @At("RETURN"))
+    public void publishStarts(RegistryAccess registryAccess, ChunkGeneratorStructureState state, StructureManager structureManager, ChunkAccess chunk, StructureTemplateManager templateManager, CallbackInfo ci) {
+        StructureShare share = StructureShare.getIfShared((ChunkGenerator) (Object) this);
+        if (share != null) {
+            share.publishStarts(chunk, createSerializationContext(registryAccess, templateManager));
+        }
+    }
+
+    @Inject(method = "createReferences", at = @At("HEAD"), cancellable = true)
+    public void applySharedReferences(WorldGenLevel level, StructureManager structureManager, ChunkAccess chunk, CallbackInfo ci) {
+        StructureShare share = StructureShare.getIfShared((ChunkGenerator) (Object) this);
+        if (share != null && share.applyReferences(chunk)) {
+            ci.cancel();
+        }
+    }
+
+    @Inject(method = "createReferences", at = @At("RETURN"))
+    public void publishReferences(WorldGenLevel level, StructureManager structureManager, ChunkAccess chunk, CallbackInfo ci) {
+        StructureShare share = StructureShare.getIfShared((ChunkGenerator) (Object) this);
+        if (share != null) {
+            share.publishReferences(chunk);
+        }
+    }
+
+    @Unique
+    private static StructurePieceSerializationContext createSerializationContext(RegistryAccess registryAccess, StructureTemplateManager templateManager) {
+        return new StructurePieceSerializationContext(ResourceManager.Empty.INSTANCE, registryAccess, templateManager);
+    }
+}
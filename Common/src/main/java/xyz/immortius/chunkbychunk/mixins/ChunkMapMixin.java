@@ -10,6 +10,7 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.storage.ChunkStorage;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.spongepowered.asm.mixin.Final;
@@ -18,8 +19,10 @@ import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import xyz.immortius.chunkbychunk.server.world.ChunkSpawnController;
 import xyz.immortius.chunkbychunk.server.world.ControllableChunkMap;
+import xyz.immortius.chunkbychunk.server.world.SkyDimensions;
 import xyz.immortius.chunkbychunk.server.world.SpawnChunkHelper;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
 import xyz.immortius.chunkbychunk.interop.Services;
@@ -54,4 +57,11 @@ public abstract class ChunkMapMixin extends ChunkStorage implements ChunkHolder.
             ChunkSpawnController.get(level.getServer()).request(level, "", false, blockPos);
         }
     }
+
+    @Inject(method = "save(Lnet/minecraft/world/level/chunk/ChunkAccess;)Z", at = @At("HEAD"), cancellable = true)
+    public void skipEphemeralSave(ChunkAccess chunk, CallbackInfoReturnable<Boolean> cir) {
+        if (SkyDimensions.isEphemeralGenerationLevel(level)) {
+            cir.setReturnValue(false);
+        }
+    }
 }
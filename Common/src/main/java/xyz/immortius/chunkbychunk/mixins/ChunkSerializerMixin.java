@@ -0,0 +1,87 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ai.village.poi.PoiManager;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.ImposterProtoChunk;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import net.minecraft.world.level.chunk.storage.ChunkSerializer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
+import xyz.immortius.chunkbychunk.server.world.PristineChunk;
+import xyz.immortius.chunkbychunk.server.world.RecordedChunk;
+import xyz.immortius.chunkbychunk.server.world.SkyChunkGenerator;
+
+/**
+ * Stores unspawned sky chunks in a compact form. Rather than their blocks, light and heightmaps, a small record is saved
+ * and the chunk is saved as only having reached the biomes status. When loaded, the chunk is generated again from the
+ * record - which is cheap for sky chunks - giving the same chunk.
+ */
+@Mixin(ChunkSerializer.class)
+public abstract class ChunkSerializerMixin {
+
+    @Unique
+    private static final String UNSPAWNED_RECORD = ChunkByChunkConstants.MOD_ID + ":unspawned";
+
+    @Inject(method = "write", at = @At("RETURN"))
+    private static void compactUnspawnedChunk(ServerLevel level, ChunkAccess chunk, CallbackInfoReturnable<CompoundTag> cir) {
+        if (!(level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator)) {
+            return;
+        }
+        ChunkAccess savedChunk = (chunk instanceof ImposterProtoChunk imposter) ? imposter.getWrapped() : chunk;
+        CompoundTag tag = cir.getReturnValue();
+        if (savedChunk instanceof PristineChunk pristineChunk && pristineChunk.isPristine() && !hasPendingTicks(tag)) {
+            CompoundTag record = generator.createUnspawnedRecord(savedChunk);
+            if (record != null) {
+                tag.putString("Status", ChunkStatus.BIOMES.getName());
+                tag.putBoolean("isLightOn", false);
+                tag.remove("Heightmaps");
+                tag.remove("block_ticks");
+                tag.remove("fluid_ticks");
+                ListTag sections = tag.getList("sections", Tag.TAG_COMPOUND);
+                for (int i = 0; i < sections.size(); i++) {
+                    CompoundTag section = sections.getCompound(i);
+                    section.remove("block_states");
+                    section.remove("BlockLight");
+                    section.remove("SkyLight");
+                }
+                tag.put(UNSPAWNED_RECORD, record);
+            }
+        } else if (savedChunk instanceof ProtoChunk && !savedChunk.getStatus().isOrAfter(ChunkStatus.NOISE)) {
+            // Retain the record for chunks saved again before they are rebuilt
+            CompoundTag record = (savedChunk instanceof RecordedChunk recordedChunk) ? recordedChunk.getUnspawnedRecord() : null;
+            if (record != null) {
+                tag.put(UNSPAWNED_RECORD, record);
+            }
+        }
+    }
+
+    /**
+     * Ticks scheduled in a chunk (such as by a neighbouring change) would not be scheduled again when it is generated from
+     * its record, so chunks with pending ticks are saved in full
+     */
+    @Unique
+    private static boolean hasPendingTicks(CompoundTag tag) {
+        return !tag.getList("block_ticks", Tag.TAG_COMPOUND).isEmpty() || !tag.getList("fluid_ticks", Tag.TAG_COMPOUND).isEmpty();
+    }
+
+    @Inject(method = "read", at = @At("RETURN"))
+    private static void restoreUnspawnedChunk(ServerLevel level, PoiManager poiManager, ChunkPos pos, CompoundTag tag, CallbackInfoReturnable<ProtoChunk> cir) {
+        if (tag.contains(UNSPAWNED_RECORD, Tag.TAG_COMPOUND) && level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator
+                && cir.getReturnValue() instanceof RecordedChunk recordedChunk && !(cir.getReturnValue() instanceof ImposterProtoChunk)) {
+            CompoundTag record = tag.getCompound(UNSPAWNED_RECORD);
+            if (generator.isUsableUnspawnedRecord(record)) {
+                recordedChunk.setUnspawnedRecord(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.network.protocol.game.ClientboundLevelChunkPacketData;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import xyz.immortius.chunkbychunk.server.world.UnspawnedChunkPacketCache;
+
+/**
+ * Reuses the encoded chunk data of identical unspawned chunks
+ */
+@Mixin(ClientboundLevelChunkWithLightPacket.class)
+public abstract class ClientboundLevelChunkWithLightPacketMixin {
+
+    @Redirect(method = "<init>(Lnet/minecraft/world/level/chunk/LevelChunk;Lnet/minecraft/world/level/lighting/LevelLightEngine;Ljava/util/BitSet;Ljava/util/BitSet;Z)V", at = @At(value = "NEW", target = "(Lnet/minecraft/world/level/chunk/LevelChunk;)Lnet/minecraft/network/protocol/game/ClientboundLevelChunkPacketData;"))
+    private ClientboundLevelChunkPacketData createChunkData(LevelChunk chunk) {
+        return UnspawnedChunkPacketCache.getChunkData(chunk);
+    }
+}
@@ -0,0 +1,31 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.chunk.storage.EntityStorage;
+import net.minecraft.world.level.entity.ChunkEntities;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import xyz.immortius.chunkbychunk.server.world.SkyDimensions;
+
+/**
+ * Prevents entities being saved for ephemeral generation levels - they are recreated along with their chunk.
+ */
+@Mixin(EntityStorage.class)
+public abstract class EntityStorageMixin {
+
+    @Final
+    @Shadow
+    private ServerLevel level;
+
+    @Inject(method = "storeEntities", at = @At("HEAD"), cancellable = true)
+    public void skipEphemeralStore(ChunkEntities<Entity> entities, CallbackInfo ci) {
+        if (SkyDimensions.isEphemeralGenerationLevel(level)) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import xyz.immortius.chunkbychunk.common.util.BlockChangeListener;
+import xyz.immortius.chunkbychunk.common.util.ChunkComposition;
+import xyz.immortius.chunkbychunk.common.util.IndexedChunk;
+import xyz.immortius.chunkbychunk.server.world.PristineChunk;
+import xyz.immortius.chunkbychunk.server.world.SkyChunkGenerator;
+import xyz.immortius.chunkbychunk.server.world.SpawnChunkHelper;
+import xyz.immortius.chunkbychunk.server.world.UnspawnedChunkPacketCache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks whether generated unspawned sky chunks have been changed since they were generated, and holds the block
+ * composition index of each chunk, invalidating a section's counts when a block in it changes. Block changes are also passed
+ * to any block entities in the chunk that listen for them.
+ */
+@Mixin(LevelChunk.class)
+public abstract class LevelChunkMixin implements PristineChunk, IndexedChunk {
+
+    @Unique
+    private boolean pristine;
+
+    @Unique
+    private volatile ChunkComposition composition;
+
+    @Unique
+    private Map<BlockPos, BlockChangeListener> blockChangeListeners;
+
+    @Inject(method = "<init>(Lnet/minecraft/server/level/ServerLevel;Lnet/minecraft/world/level/chunk/ProtoChunk;Lnet/minecraft/world/level/chunk/LevelChunk$PostLoadProcessor;)V", at = @At("TAIL"))
+    private void initPristine(ServerLevel level, ProtoChunk protoChunk, LevelChunk.PostLoadProcessor postLoad, CallbackInfo ci) {
+        LevelChunk chunk = (LevelChunk) (Object) this;
+        pristine = level.getChunkSource().getGenerator() instanceof SkyChunkGenerator && chunk.getBlockEntities().isEmpty() && SpawnChunkHelper.isEmptyChunk(chunk);
+    }
+
+    @Inject(method = "setBlockState", at = @At("RETURN"))
+    private void onBlockStateSet(BlockPos pos, BlockState state, boolean isMoving, CallbackInfoReturnable<BlockState> cir) {
+        if (cir.getReturnValue() != null) {
+            clearPristine();
+            ChunkComposition chunkComposition = composition;
+            if (chunkComposition != null) {
+                chunkComposition.invalidate(((LevelChunk) (Object) this).getSectionIndex(pos.getY()));
+            }
+            if (blockChangeListeners != null) {
+                for (BlockChangeListener listener : blockChangeListeners.values()) {
+                    listener.onBlockChanged(pos, cir.getReturnValue(), state);
+                }
+            }
+        }
+    }
+
+    @Inject(method = "setBlockEntity", at = @At("TAIL"))
+    private void registerBlockChangeListener(BlockEntity blockEntity, CallbackInfo ci) {
+        if (blockEntity instanceof BlockChangeListener listener && !((LevelChunk) (Object) this).getLevel().isClientSide()) {
+            if (blockChangeListeners == null) {
+                blockChangeListeners = new HashMap<>();
+            }
+            blockChangeListeners.put(blockEntity.getBlockPos(), listener);
+        } else if (blockChangeListeners != null) {
+            blockChangeListeners.remove(blockEntity.getBlockPos());
+        }
+    }
+
+    @Inject(method = "removeBlockEntity", at = @At("HEAD"))
+    private void unregisterBlockChangeListener(BlockPos pos, CallbackInfo ci) {
+        if (blockChangeListeners != null) {
+            blockChangeListeners.remove(pos);
+        }
+    }
+
+    @Override
+    public boolean isPristine() {
+        return pristine;
+    }
+
+    @Override
+    public void clearPristine() {
+        if (pristine && ((LevelChunk) (Object) this).getLevel() instanceof ServerLevel level) {
+            UnspawnedChunkPacketCache.invalidate(level, ((LevelChunk) (Object) this).getPos());
+        }
+        pristine = false;
+    }
+
+    @Override
+    public ChunkComposition getBlockComposition() {
+        ChunkComposition chunkComposition = composition;
+        if (chunkComposition == null) {
+            synchronized (this) {
+                chunkComposition = composition;
+                if (chunkComposition == null) {
+                    chunkComposition = new ChunkComposition((LevelChunk) (Object) this);
+                    composition = chunkComposition;
+                }
+            }
+        }
+        return chunkComposition;
+    }
+}
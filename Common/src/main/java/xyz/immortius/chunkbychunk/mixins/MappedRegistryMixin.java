@@ -0,0 +1,25 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import xyz.immortius.chunkbychunk.common.util.CompiledBlockPredicate;
+
+import java.util.Map;
+
+/**
+ * Invalidates compiled block predicates when block tags are rebound, as they may have been compiled from tags
+ */
+@Mixin(MappedRegistry.class)
+public abstract class MappedRegistryMixin {
+
+    @Inject(method = "bindTags", at = @At("RETURN"))
+    private void invalidateCompiledPredicates(Map<?, ?> tags, CallbackInfo ci) {
+        if ((Object) this == BuiltInRegistries.BLOCK) {
+            CompiledBlockPredicate.invalidateAll();
+        }
+    }
+}
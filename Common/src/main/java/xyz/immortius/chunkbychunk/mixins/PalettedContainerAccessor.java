@@ -0,0 +1,14 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Mixin to support reading the raw palette and storage of a PalettedContainer
+ */
+@Mixin(PalettedContainer.class)
+public interface PalettedContainerAccessor<T> {
+    @Accessor("data")
+    PalettedContainer.Data<T> getData();
+}
@@ -0,0 +1,32 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.chunk.ProtoChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import xyz.immortius.chunkbychunk.server.world.RecordedChunk;
+
+import javax.annotation.Nullable;
+
+/**
+ * Holds the record of an unspawned sky chunk on the chunk being generated from it, so the record lives exactly as long
+ * as the chunk does.
+ */
+@Mixin(ProtoChunk.class)
+public abstract class ProtoChunkMixin implements RecordedChunk {
+
+    @Unique
+    @Nullable
+    private volatile CompoundTag unspawnedRecord;
+
+    @Override
+    @Nullable
+    public CompoundTag getUnspawnedRecord() {
+        return unspawnedRecord;
+    }
+
+    @Override
+    public void setUnspawnedRecord(@Nullable CompoundTag record) {
+        this.unspawnedRecord = record;
+    }
+}
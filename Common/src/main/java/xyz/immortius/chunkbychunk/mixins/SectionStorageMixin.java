@@ -0,0 +1,32 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.chunk.storage.SectionStorage;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import xyz.immortius.chunkbychunk.server.world.SkyDimensions;
+
+/**
+ * Prevents section data (points of interest) being saved for ephemeral generation levels - it is recreated along with
+ * their chunks.
+ */
+@Mixin(SectionStorage.class)
+public abstract class SectionStorageMixin {
+
+    @Final
+    @Shadow
+    protected LevelHeightAccessor levelHeightAccessor;
+
+    @Inject(method = "writeColumn(Lnet/minecraft/world/level/ChunkPos;)V", at = @At("HEAD"), cancellable = true)
+    public void skipEphemeralWrite(ChunkPos pos, CallbackInfo ci) {
+        if (levelHeightAccessor instanceof ServerLevel level && SkyDimensions.isEphemeralGenerationLevel(level)) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package xyz.immortius.chunkbychunk.mixins;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ChunkMap;
+import net.minecraft.server.level.ThreadedLevelLightEngine;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.lighting.LayerLightEventListener;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import xyz.immortius.chunkbychunk.server.world.SkyChunkGenerator;
+import xyz.immortius.chunkbychunk.server.world.SpawnChunkHelper;
+
+/**
+ * Provides precomputed light for freshly generated unspawned sky chunks. The light is queued as if it had been loaded with
+ * the chunk, and the chunk treated as already lit so its contents aren't run through the light engine.
+ */
+@Mixin(ThreadedLevelLightEngine.class)
+public abstract class ThreadedLevelLightEngineMixin {
+
+    @Final
+    @Shadow
+    private ChunkMap chunkMap;
+
+    @ModifyVariable(method = "lightChunk", at = @At("HEAD"), argsOnly = true)
+    private boolean usePrecomputedLight(boolean isLighted, ChunkAccess chunk, boolean originalIsLighted) {
+        ThreadedLevelLightEngine lightEngine = (ThreadedLevelLightEngine) (Object) this;
+        if (isLighted
+                || chunk.getStatus().isOrAfter(ChunkStatus.LIGHT)
+                || !(chunkMap.generator() instanceof SkyChunkGenerator generator)
+                || lightEngine.getLayerListener(LightLayer.SKY) == LayerLightEventListener.DummyLightLayerEventListener.INSTANCE
+                || !SpawnChunkHelper.isEmptyChunk(chunk)) {
+            return isLighted;
+        }
+        DataLayer[] skyLight = generator.createUnspawnedSkyLight(chunk);
+        if (skyLight == null) {
+            return false;
+        }
+        ChunkPos pos = chunk.getPos();
+        lightEngine.retainData(pos, true);
+        for (int index = 0; index < skyLight.length; index++) {
+            lightEngine.queueSectionData(LightLayer.SKY, SectionPos.of(pos, chunk.getSectionYFromSectionIndex(index)), skyLight[index], false);
+        }
+        return true;
+    }
+}
@@ -24,6 +24,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.*;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkGenerator;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.dimension.DimensionType;
@@ -39,6 +40,7 @@ import xyz.immortius.chunkbychunk.common.blockEntities.WorldScannerBlockEntity;
 import xyz.immortius.chunkbychunk.common.data.ScannerData;
 import xyz.immortius.chunkbychunk.common.data.SkyDimensionData;
 import xyz.immortius.chunkbychunk.common.util.ChunkUtil;
+import xyz.immortius.chunkbychunk.common.util.CompiledBlockPredicate;
 import xyz.immortius.chunkbychunk.common.util.SpiralIterator;
 import xyz.immortius.chunkbychunk.server.world.*;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
@@ -51,6 +53,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
 /**
  * Server event handlers for events triggered server-side
@@ -59,6 +63,7 @@ public final class ServerEventHandler {
 
     private static final Logger LOGGER = LogManager.getLogger(ChunkByChunkConstants.MOD_ID);
     private static final int MAX_FIND_CHUNK_ATTEMPTS = 512;
+    private static final long FIND_CHUNK_TIME_LIMIT_MS = TimeUnit.MINUTES.toMillis(2);
     private static final String SERVERCONFIG = "serverconfig";
     private static final ConfigSystem configSystem = new ConfigSystem();
 
@@ -84,6 +89,8 @@ public final class ServerEventHandler {
      * @param server The minecraft server that is starting
      */
     public static void onServerStarting(MinecraftServer server) {
+        UnspawnedChunkPacketCache.clear();
+        SkyDimensions.clearEphemeralLevels();
         configSystem.synchConfig(server.getWorldPath(LevelResource.ROOT).resolve(SERVERCONFIG).resolve(ChunkByChunkConstants.CONFIG_FILE), Paths.get(ChunkByChunkConstants.DEFAULT_CONFIG_PATH).resolve(ChunkByChunkConstants.CONFIG_FILE), ChunkByChunkConfig.get());
         if (ChunkByChunkConfig.get().getGeneration().isEnabled()) {
             ChunkByChunkConstants.LOGGER.info("Setting up sky dimensions");
@@ -190,6 +197,10 @@ public final class ServerEventHandler {
         if (generationLevel == null) {
             generationLevel = new LevelStem(level.type(), rootGenerator);
             dimensions.register(genLevelId, generationLevel, Lifecycle.stable());
+        } else if (generationLevel.generator() != rootGenerator && generationLevel.generator().getClass() == rootGenerator.getClass()
+                && ChunkGeneratorAccess.getNoiseGeneratorSettings(generationLevel.generator()).value() == ChunkGeneratorAccess.getNoiseGeneratorSettings(rootGenerator).value()) {
+            // Share the root generator instance with the generation dimension, so they share generation data such as column heights
+            dimensions.registerMapping(dimensions.getId(generationLevel), genLevelId, new LevelStem(generationLevel.type(), rootGenerator), Lifecycle.stable());
         }
 
         SkyChunkGenerator skyGenerator;
@@ -210,7 +221,7 @@ public final class ServerEventHandler {
             biomes.getHolder(ResourceKey.create(Registries.BIOME, new ResourceLocation(config.unspawnedBiome))).ifPresent(skyGenerator::setUnspawnedBiome);
         }
 
-        skyGenerator.configure(ResourceKey.create(Registries.DIMENSION, genLevelId.location()), config.generationType, sealBlock, coverBlock, config.initialChunks, config.allowChunkSpawner, config.allowUnstableChunkSpawner);
+        skyGenerator.configure(ResourceKey.create(Registries.DIMENSION, genLevelId.location()), config.generationType, sealBlock, coverBlock, config.initialChunks, config.allowChunkSpawner, config.allowUnstableChunkSpawner, config.ephemeralGenDimension, config.unspawnedDetailMargin);
         return skyGenerator;
     }
 
@@ -259,6 +270,24 @@ public final class ServerEventHandler {
     public static void onServerStarted(MinecraftServer server) {
         if (ChunkByChunkConfig.get().getGeneration().isEnabled()) {
             checkSpawnInitialChunks(server);
+            initSpawnedAreas(server);
+        }
+    }
+
+    /**
+     * Seeds the spawned area of each sky dimension from its registry of spawned chunks, so chunks spawned before the area
+     * was tracked are included.
+     */
+    private static void initSpawnedAreas(MinecraftServer server) {
+        for (ServerLevel level : server.getAllLevels()) {
+            if (level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator) {
+                SpawnedChunks spawnedChunks = SpawnedChunks.get(level);
+                SkyChunkGenerator.SpawnedArea bounds = spawnedChunks.getBounds();
+                if (bounds != null) {
+                    generator.includeSpawnedArea(bounds);
+                }
+                generator.setSpawnedAreaComplete(spawnedChunks.isComplete());
+            }
         }
     }
 
@@ -271,6 +300,12 @@ public final class ServerEventHandler {
             overworldSpawnPos = generationLevel.getSharedSpawnPos();
             ChunkPos chunkSpawnPos = new ChunkPos(overworldSpawnPos);
             if (SpawnChunkHelper.isEmptyChunk(overworldLevel, chunkSpawnPos)) {
+                // Nothing has been spawned yet, so registries of spawned chunks created now are complete
+                for (ServerLevel level : server.getAllLevels()) {
+                    if (level.getChunkSource().getGenerator() instanceof SkyChunkGenerator) {
+                        SpawnedChunks.get(level).markCompleteIfNew();
+                    }
+                }
                 overworldSpawnPos = findAppropriateSpawnChunk(overworldLevel, generationLevel, server.registryAccess());
                 spawnInitialChunks(overworldLevel, skyGenerator.getInitialChunks(), overworldSpawnPos, ChunkByChunkConfig.get().getGeneration().spawnNewChunkChest());
             }
@@ -305,11 +340,13 @@ public final class ServerEventHandler {
         TagKey<Block> leavesTag = BlockTags.LEAVES;
         Set<Block> copper = ImmutableSet.of(Blocks.COPPER_ORE, Blocks.DEEPSLATE_COPPER_ORE, Blocks.RAW_COPPER_BLOCK);
 
+        List<Predicate<BlockState>> spawnChunkPredicates = List.of(ChunkUtil.matches(logsTag), ChunkUtil.matches(Blocks.WATER), ChunkUtil.matches(leavesTag), ChunkUtil.matches(copper));
+
         BlockPos spawnPos = overworldLevel.getSharedSpawnPos();
 
         switch (ChunkByChunkConfig.get().getGameplayConfig().getStartRestriction()) {
             case Village -> {
-                spawnPos = findVillage(generationLevel, registryAccess, spawnPos);
+                spawnPos = findVillage(overworldLevel, generationLevel, registryAccess, spawnPos);
             }
             case Biome -> {
                 String startingBiome = ChunkByChunkConfig.get().getGameplayConfig().getStartingBiome();
@@ -318,22 +355,14 @@ public final class ServerEventHandler {
         }
 
         ChunkPos initialChunkPos = new ChunkPos(spawnPos);
-        SpiralIterator iterator = new SpiralIterator(initialChunkPos.x, initialChunkPos.z);
-        int attempts = 0;
-        while (attempts < MAX_FIND_CHUNK_ATTEMPTS) {
-            LevelChunk chunk = generationLevel.getChunk(iterator.getX(), iterator.getY());
-            if (ChunkUtil.countBlocks(chunk, logsTag) > 2
-                    && ChunkUtil.countBlocks(chunk, Blocks.WATER) > 0
-                    && ChunkUtil.countBlocks(chunk, leavesTag) > 3
-                    && ChunkUtil.countBlocks(chunk, copper) >= 36) {
-                spawnPos = new BlockPos(chunk.getPos().getMiddleBlockX(), ChunkUtil.getSafeSpawnHeight(chunk, chunk.getPos().getMiddleBlockX(), chunk.getPos().getMiddleBlockZ()), chunk.getPos().getMiddleBlockZ());
-                break;
-            }
-            iterator.next();
-            attempts++;
-        }
-        if (attempts < MAX_FIND_CHUNK_ATTEMPTS) {
-            LOGGER.info("Found appropriate spawn chunk in {} attempts", attempts);
+        SpawnChunkSearch search = new SpawnChunkSearch(generationLevel, chunk -> {
+            int[] counts = ChunkUtil.countBlocks(chunk, spawnChunkPredicates);
+            return counts[0] > 2 && counts[1] > 0 && counts[2] > 3 && counts[3] >= 36;
+        }, MAX_FIND_CHUNK_ATTEMPTS, FIND_CHUNK_TIME_LIMIT_MS);
+        ChunkPos spawnChunkPos = search.find(initialChunkPos);
+        if (spawnChunkPos != null) {
+            LevelChunk chunk = generationLevel.getChunk(spawnChunkPos.x, spawnChunkPos.z);
+            spawnPos = new BlockPos(spawnChunkPos.getMiddleBlockX(), ChunkUtil.getSafeSpawnHeight(chunk, spawnChunkPos.getMiddleBlockX(), spawnChunkPos.getMiddleBlockZ()), spawnChunkPos.getMiddleBlockZ());
         } else {
             LOGGER.info("No appropriate spawn chunk found :(");
         }
@@ -369,12 +398,14 @@ public final class ServerEventHandler {
         return spawnPos;
     }
 
-    private static BlockPos findVillage(ServerLevel generationLevel, RegistryAccess registryAccess, BlockPos spawnPos) {
+    private static BlockPos findVillage(ServerLevel overworldLevel, ServerLevel generationLevel, RegistryAccess registryAccess, BlockPos spawnPos) {
         Registry<Structure> structures = registryAccess.registry(Registries.STRUCTURE).orElseThrow();
         Optional<HolderSet.Named<Structure>> structuresTag = structures.getTag(StructureTags.VILLAGE);
         if (structuresTag.isPresent()) {
             HolderSet<Structure> holders = structuresTag.get();
-            Pair<BlockPos, Holder<Structure>> nearest = generationLevel.getChunkSource().getGenerator().findNearestMapStructure(generationLevel, holders, spawnPos, 100, false);
+            // Search through the sky generator where possible, so the result is cached for later searches
+            ChunkGenerator generator = (overworldLevel.getChunkSource().getGenerator() instanceof SkyChunkGenerator) ? overworldLevel.getChunkSource().getGenerator() : generationLevel.getChunkSource().getGenerator();
+            Pair<BlockPos, Holder<Structure>> nearest = generator.findNearestMapStructure(generationLevel, holders, spawnPos, 100, false);
             if (nearest != null) {
                 spawnPos = nearest.getFirst();
                 ChunkByChunkConstants.LOGGER.info("Spawn shifted to nearest village");
@@ -420,6 +451,7 @@ public final class ServerEventHandler {
         Gson gson = new GsonBuilder().registerTypeAdapter(SkyChunkGenerator.EmptyGenerationType.class, (JsonDeserializer<SkyChunkGenerator.EmptyGenerationType>) (json, typeOfT, context) -> SkyChunkGenerator.EmptyGenerationType.getFromString(json.getAsString())).create();
         loadScannerData(resourceManager, gson);
         SkyDimensions.loadSkyDimensionData(resourceManager, gson);
+        CompiledBlockPredicate.invalidateAll();
     }
 
     private static void loadScannerData(ResourceManager resourceManager, Gson gson) {
@@ -442,5 +474,13 @@ public final class ServerEventHandler {
         if (chunkSpawnController != null) {
             chunkSpawnController.tick();
         }
+        SpawnSourcePool spawnSourcePool = SpawnSourcePool.get(server);
+        if (spawnSourcePool != null) {
+            spawnSourcePool.tick();
+        }
+        ChunkPregenController chunkPregenController = ChunkPregenController.get(server);
+        if (chunkPregenController != null) {
+            chunkPregenController.tick();
+        }
     }
 }
@@ -0,0 +1,80 @@
+package xyz.immortius.chunkbychunk.server.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.phys.Vec3;
+import xyz.immortius.chunkbychunk.server.world.ChunkPregenController;
+import xyz.immortius.chunkbychunk.server.world.SkyChunkGenerator;
+
+public class PregenCommand {
+
+    private static final int MAX_RADIUS = 1000;
+
+    private static final SimpleCommandExceptionType INVALID_LEVEL = new SimpleCommandExceptionType(Component.translatable("commands.chunkbychunk.pregen.invalidlevel"));
+    private static final SimpleCommandExceptionType EPHEMERAL_LEVEL = new SimpleCommandExceptionType(Component.translatable("commands.chunkbychunk.pregen.ephemerallevel"));
+    private static final SimpleCommandExceptionType BUSY = new SimpleCommandExceptionType(Component.translatable("commands.chunkbychunk.pregen.busy"));
+    private static final SimpleCommandExceptionType IDLE = new SimpleCommandExceptionType(Component.translatable("commands.chunkbychunk.pregen.idle"));
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("chunkbychunk:pregen")
+                .requires(x -> x.hasPermission(2))
+                .then(Commands.literal("status")
+                        .executes((cmd) -> status(cmd.getSource())))
+                .then(Commands.literal("cancel")
+                        .executes((cmd) -> cancel(cmd.getSource())))
+                .then(Commands.argument("dimension", DimensionArgument.dimension())
+                        .then(Commands.argument("radius", IntegerArgumentType.integer(0, MAX_RADIUS))
+                                .executes((cmd) -> pregen(cmd.getSource(), DimensionArgument.getDimension(cmd, "dimension"), IntegerArgumentType.getInteger(cmd, "radius"))))));
+    }
+
+    private static int pregen(CommandSourceStack stack, ServerLevel level, int radius) throws CommandSyntaxException {
+        SkyChunkGenerator skyGenerator = null;
+        for (ServerLevel skyLevel : stack.getServer().getAllLevels()) {
+            if (skyLevel.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator && generator.isSourceLevel(level.dimension())) {
+                skyGenerator = generator;
+                break;
+            }
+        }
+        if (skyGenerator == null) {
+            throw INVALID_LEVEL.create();
+        }
+        if (skyGenerator.isEphemeralGenerationLevels()) {
+            throw EPHEMERAL_LEVEL.create();
+        }
+
+        // Map the position of the source into the target level, in case the command is run from a different dimension
+        double scale = DimensionType.getTeleportationScale(stack.getLevel().dimensionType(), level.dimensionType());
+        Vec3 position = stack.getPosition();
+        ChunkPos center = new ChunkPos(new BlockPos(position.x * scale, position.y, position.z * scale));
+
+        ChunkPregenController controller = ChunkPregenController.get(stack.getServer());
+        if (!controller.start(level, center, radius)) {
+            throw BUSY.create();
+        }
+        stack.sendSuccess(controller.getStatus(), true);
+        return 1;
+    }
+
+    private static int status(CommandSourceStack stack) {
+        stack.sendSuccess(ChunkPregenController.get(stack.getServer()).getStatus(), false);
+        return 1;
+    }
+
+    private static int cancel(CommandSourceStack stack) throws CommandSyntaxException {
+        if (!ChunkPregenController.get(stack.getServer()).cancel()) {
+            throw IDLE.create();
+        }
+        stack.sendSuccess(Component.translatable("commands.chunkbychunk.pregen.cancelled"), true);
+        return 1;
+    }
+}
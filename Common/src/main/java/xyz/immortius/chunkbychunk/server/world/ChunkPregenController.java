@@ -0,0 +1,233 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import com.mojang.datafixers.util.Either;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.saveddata.SavedData;
+import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
+import xyz.immortius.chunkbychunk.common.util.SpiralIterator;
+import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pregenerates chunks of a generation (or theme) dimension in the background, spiralling out from a center chunk. A bounded
+ * number of chunks are generated at a time, and generation is paused while the server is under load or players are online.
+ * Progress is retained across restarts.
+ */
+public class ChunkPregenController extends SavedData {
+
+    private static final TicketType<ChunkPos> PREGEN_TICKET = TicketType.create(ChunkByChunkConstants.MOD_ID + "_pregen", Comparator.comparingLong(ChunkPos::toLong));
+    private static final long REPORT_INTERVAL_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final MinecraftServer server;
+
+    @Nullable
+    private ResourceKey<Level> level;
+    private int radius;
+    private int completed;
+    private SpiralIterator completedIterator = new SpiralIterator();
+
+    private transient SpiralIterator issueIterator = new SpiralIterator();
+    private transient int issued;
+    private transient final Deque<PendingChunk> pendingChunks = new ArrayDeque<>();
+    private transient boolean paused;
+    private transient long sessionStartTime;
+    private transient int sessionStartCompleted;
+    private transient long lastReportTime;
+
+    public static ChunkPregenController get(MinecraftServer server) {
+        return server.getLevel(Level.OVERWORLD).getChunkSource().getDataStorage().computeIfAbsent((tag) -> ChunkPregenController.load(server, tag), () -> new ChunkPregenController(server), "chunkpregencontroller");
+    }
+
+    private static ChunkPregenController load(MinecraftServer server, CompoundTag tag) {
+        ChunkPregenController controller = new ChunkPregenController(server);
+        controller.loadInternal(tag);
+        return controller;
+    }
+
+    private ChunkPregenController(MinecraftServer server) {
+        this.server = server;
+    }
+
+    private void loadInternal(CompoundTag tag) {
+        if (tag.contains("level")) {
+            level = ResourceKey.create(Registries.DIMENSION, new ResourceLocation(tag.getString("level")));
+            radius = tag.getInt("radius");
+            completed = tag.getInt("completed");
+            completedIterator.load(tag.getCompound("progress"));
+            startSession();
+        }
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        if (level != null) {
+            tag.putString("level", level.location().toString());
+            tag.putInt("radius", radius);
+            tag.putInt("completed", completed);
+            tag.put("progress", completedIterator.createTag());
+        }
+        return tag;
+    }
+
+    /**
+     * Starts pregenerating chunks
+     * @param level The level to generate chunks in
+     * @param center The chunk to spiral out from
+     * @param radius The radius (in chunks) to generate
+     * @return Whether pregeneration was started - it will not start if pregeneration is already in progress
+     */
+    public boolean start(ServerLevel level, ChunkPos center, int radius) {
+        if (isBusy()) {
+            return false;
+        }
+        this.level = level.dimension();
+        this.radius = radius;
+        this.completed = 0;
+        this.completedIterator = new SpiralIterator(center.x, center.z);
+        startSession();
+        ChunkByChunkConstants.LOGGER.info("Pregenerating {} chunks in {} around {}", getTotal(), level.dimension().location(), center);
+        setDirty();
+        return true;
+    }
+
+    /**
+     * Stops any pregeneration in progress
+     * @return Whether there was pregeneration in progress
+     */
+    public boolean cancel() {
+        if (!isBusy()) {
+            return false;
+        }
+        ChunkByChunkConstants.LOGGER.info("Cancelled pregeneration of {} after {} of {} chunks", level.location(), completed, getTotal());
+        finish();
+        return true;
+    }
+
+    public boolean isBusy() {
+        return level != null;
+    }
+
+    public void tick() {
+        if (level == null) {
+            return;
+        }
+        ServerLevel serverLevel = server.getLevel(level);
+        if (serverLevel == null) {
+            ChunkByChunkConstants.LOGGER.warn("Abandoning pregeneration of missing dimension {}", level.location());
+            finish();
+            return;
+        }
+        ServerChunkCache chunkSource = serverLevel.getChunkSource();
+
+        // Chunks are retired in spiral order, so the saved progress never skips a chunk that has not finished
+        while (!pendingChunks.isEmpty() && pendingChunks.peekFirst().future().isDone()) {
+            PendingChunk chunk = pendingChunks.removeFirst();
+            chunkSource.removeRegionTicket(PREGEN_TICKET, chunk.pos(), 0, chunk.pos());
+            completedIterator.next();
+            completed++;
+            setDirty();
+        }
+        if (completed >= getTotal()) {
+            ChunkByChunkConstants.LOGGER.info("Completed pregeneration of {} chunks in {}", completed, level.location());
+            finish();
+            return;
+        }
+
+        boolean shouldPause = (ChunkByChunkConfig.get().getGeneration().isPregenPauseWithPlayersOnline() && server.getPlayerCount() > 0)
+                || server.getAverageTickTime() > ChunkByChunkConfig.get().getGeneration().getPregenPauseTickTime();
+        if (shouldPause != paused) {
+            paused = shouldPause;
+            ChunkByChunkConstants.LOGGER.info(paused ? "Pausing pregeneration of {}" : "Resuming pregeneration of {}", level.location());
+            startSession();
+        }
+
+        if (!paused) {
+            while (pendingChunks.size() < ChunkByChunkConfig.get().getGeneration().getPregenMaxConcurrentChunks() && issued < getTotal()) {
+                ChunkPos pos = new ChunkPos(issueIterator.getX(), issueIterator.getY());
+                chunkSource.addRegionTicket(PREGEN_TICKET, pos, 0, pos);
+                pendingChunks.add(new PendingChunk(pos, chunkSource.getChunkFuture(pos.x, pos.z, ChunkStatus.FULL, true)));
+                issueIterator.next();
+                issued++;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastReportTime > REPORT_INTERVAL_MS) {
+                lastReportTime = now;
+                ChunkByChunkConstants.LOGGER.info("Pregenerating {}: {}/{} chunks, approximately {} seconds remaining", level.location(), completed, getTotal(), getEstimatedSecondsRemaining());
+            }
+        }
+    }
+
+    /**
+     * @return A description of the current pregeneration progress
+     */
+    public Component getStatus() {
+        if (level == null) {
+            return Component.translatable("commands.chunkbychunk.pregen.idle");
+        }
+        long remaining = getEstimatedSecondsRemaining();
+        return Component.translatable(paused ? "commands.chunkbychunk.pregen.paused" : "commands.chunkbychunk.pregen.progress", level.location().toString(), completed, getTotal(), remaining < 0 ? "?" : remaining);
+    }
+
+    private int getTotal() {
+        return (2 * radius + 1) * (2 * radius + 1);
+    }
+
+    private long getEstimatedSecondsRemaining() {
+        long elapsed = System.currentTimeMillis() - sessionStartTime;
+        int generated = completed - sessionStartCompleted;
+        if (generated <= 0 || elapsed <= 0) {
+            return -1;
+        }
+        return (getTotal() - completed) * elapsed / generated / 1000;
+    }
+
+    private void startSession() {
+        issueIterator = new SpiralIterator();
+        issueIterator.load(completedIterator.createTag());
+        issued = completed + pendingChunks.size();
+        for (int i = 0; i < pendingChunks.size(); i++) {
+            issueIterator.next();
+        }
+        sessionStartTime = System.currentTimeMillis();
+        sessionStartCompleted = completed;
+        lastReportTime = sessionStartTime;
+    }
+
+    private void finish() {
+        ServerLevel serverLevel = server.getLevel(level);
+        if (serverLevel != null) {
+            for (PendingChunk chunk : pendingChunks) {
+                serverLevel.getChunkSource().removeRegionTicket(PREGEN_TICKET, chunk.pos(), 0, chunk.pos());
+            }
+        }
+        pendingChunks.clear();
+        level = null;
+        radius = 0;
+        completed = 0;
+        paused = false;
+        setDirty();
+    }
+
+    private record PendingChunk(ChunkPos pos, CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>> future) {
+    }
+}
@@ -32,11 +32,14 @@ import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
 import xyz.immortius.chunkbychunk.common.util.ChangeDimensionHelper;
+import xyz.immortius.chunkbychunk.common.util.CompiledBlockPredicate;
+import xyz.immortius.chunkbychunk.common.util.PaletteScanner;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
 
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 public class ChunkSpawnController extends SavedData {
 
@@ -70,6 +73,14 @@ public class ChunkSpawnController extends SavedData {
     }
 
     private void loadInternal(CompoundTag tag) {
+        ListTag spawnedAreasTag = tag.getList("spawnedAreas", ListTag.TAG_COMPOUND);
+        for (int i = 0; i < spawnedAreasTag.size(); i++) {
+            CompoundTag areaTag = spawnedAreasTag.getCompound(i);
+            ServerLevel level = server.getLevel(ResourceKey.create(Registries.DIMENSION, new ResourceLocation(areaTag.getString("level"))));
+            if (level != null && level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator) {
+                generator.includeSpawnedArea(new SkyChunkGenerator.SpawnedArea(areaTag.getInt("minX"), areaTag.getInt("minZ"), areaTag.getInt("maxX"), areaTag.getInt("maxZ")));
+            }
+        }
         ListTag requestsTag = tag.getList("requests", ListTag.TAG_COMPOUND);
         for (int i = 0; i < requestsTag.size(); i++) {
             requests.add(SpawnRequest.load(requestsTag.getCompound(i)));
@@ -83,7 +94,7 @@ public class ChunkSpawnController extends SavedData {
             sourceLevel = server.getLevel(currentSpawnRequest.sourceLevel);
             targetLevel = server.getLevel(currentSpawnRequest.targetLevel);
 
-            sourceChunkFuture = sourceLevel.getChunkSource().getChunkFuture(currentSpawnRequest.sourceChunkPos().x, currentSpawnRequest.sourceChunkPos().z, ChunkStatus.FULL, true);
+            sourceChunkFuture = sourceLevel.getChunkSource().getChunkFuture(currentSpawnRequest.sourceChunkPos().x, currentSpawnRequest.sourceChunkPos().z, getSourceStatus(), true);
         }
     }
 
@@ -94,6 +105,20 @@ public class ChunkSpawnController extends SavedData {
             requestsTag.add(request.save());
         }
         tag.put("requests", requestsTag);
+        ListTag spawnedAreasTag = new ListTag();
+        for (ServerLevel level : server.getAllLevels()) {
+            if (level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator && generator.getSpawnedArea() != null) {
+                SkyChunkGenerator.SpawnedArea area = generator.getSpawnedArea();
+                CompoundTag areaTag = new CompoundTag();
+                areaTag.putString("level", level.dimension().location().toString());
+                areaTag.putInt("minX", area.minX());
+                areaTag.putInt("minZ", area.minZ());
+                areaTag.putInt("maxX", area.maxX());
+                areaTag.putInt("maxZ", area.maxZ());
+                spawnedAreasTag.add(areaTag);
+            }
+        }
+        tag.put("spawnedAreas", spawnedAreasTag);
         if (currentSpawnRequest != null) {
             tag.put("currentRequest", currentSpawnRequest.save());
             tag.putString("phase", phase.name());
@@ -127,8 +152,7 @@ public class ChunkSpawnController extends SavedData {
                     int minLayer = currentLayer;
                     int maxLayer = Math.min(currentLayer + ChunkByChunkConfig.get().getGeneration().getChunkLayerSpawnRate(), targetLevel.getMaxBuildHeight() + 1);
                     copyBlocks(
-                            sourceLevel,
-                            currentSpawnRequest.sourceChunkPos,
+                            sourceChunkFuture.getNow(Either.right(ChunkHolder.ChunkLoadingFailure.UNLOADED)).orThrow(),
                             targetLevel,
                             currentSpawnRequest.targetChunkPos,
                             minLayer,
@@ -146,6 +170,10 @@ public class ChunkSpawnController extends SavedData {
                 case SYNCH_CHUNKS -> {
                     synchChunks();
                     phase = SpawnPhase.SPAWN_ENTITIES;
+                    if (ChunkByChunkConfig.get().getGeneration().isSpawnFromPartialChunks()) {
+                        // Entities are only available once the source chunk is fully generated
+                        sourceChunkFuture = sourceLevel.getChunkSource().getChunkFuture(currentSpawnRequest.sourceChunkPos().x, currentSpawnRequest.sourceChunkPos().z, ChunkStatus.FULL, true);
+                    }
                     setDirty();
                 }
                 case SPAWN_ENTITIES -> {
@@ -162,18 +190,29 @@ public class ChunkSpawnController extends SavedData {
             sourceLevel = server.getLevel(currentSpawnRequest.sourceLevel());
             forcedTargetChunk = targetLevel.setChunkForced(currentSpawnRequest.targetChunkPos().x, currentSpawnRequest.targetChunkPos().z, true);
             sourceLevel.setChunkForced(currentSpawnRequest.sourceChunkPos().x, currentSpawnRequest.sourceChunkPos().z, true);
-            sourceChunkFuture = sourceLevel.getChunkSource().getChunkFuture(currentSpawnRequest.sourceChunkPos().x, currentSpawnRequest.sourceChunkPos().z, ChunkStatus.FULL, true);
-
             if (currentSpawnRequest.immediate) {
                 phase = SpawnPhase.SYNCH_CHUNKS;
             } else {
                 phase = SpawnPhase.COPY_BIOMES;
             }
+            sourceChunkFuture = sourceLevel.getChunkSource().getChunkFuture(currentSpawnRequest.sourceChunkPos().x, currentSpawnRequest.sourceChunkPos().z, getSourceStatus(), true);
             ChunkByChunkConstants.LOGGER.info("Spawning chunk " + currentSpawnRequest.targetChunkPos.toString() + " in " + targetLevel.dimensionTypeId().toString());
             setDirty();
         }
     }
 
+    /**
+     * Partial source chunks are taken at the light status rather than features - light depends on the features of the
+     * surrounding chunks, so by then neighbours have placed any features crossing into the source chunk and have
+     * stopped writing to it.
+     */
+    private ChunkStatus getSourceStatus() {
+        if (ChunkByChunkConfig.get().getGeneration().isSpawnFromPartialChunks() && phase != SpawnPhase.SYNCH_CHUNKS && phase != SpawnPhase.SPAWN_ENTITIES) {
+            return ChunkStatus.LIGHT;
+        }
+        return ChunkStatus.FULL;
+    }
+
     private void spawnChunkEntities() {
         List<Entity> entities = sourceLevel.getEntities((Entity) null, new AABB(currentSpawnRequest.sourceChunkPos().getMinBlockX(), sourceLevel.getMinBuildHeight(), currentSpawnRequest.sourceChunkPos().getMinBlockZ(), currentSpawnRequest.sourceChunkPos().getMaxBlockX(), sourceLevel.getMaxBuildHeight(), currentSpawnRequest.sourceChunkPos().getMaxBlockZ()), (x) -> true);
         for (Entity e : entities) {
@@ -194,33 +233,58 @@ public class ChunkSpawnController extends SavedData {
         }
     }
 
-    private static void copyBlocks(ServerLevel sourceLevel, ChunkPos sourceChunkPos, ServerLevel targetLevel, ChunkPos targetChunkPos, int fromLayer, int toLayer) {
+    /**
+     * Copies blocks from the source chunk into the target. The source chunk is read directly rather than through its level,
+     * so it may be a partially generated chunk (its light isn't copied - the target's light is recalculated as blocks are
+     * placed). The target chunk is registered as spawned when its bottom layer is copied.
+     */
+    private static void copyBlocks(ChunkAccess sourceChunk, ServerLevel targetLevel, ChunkPos targetChunkPos, int fromLayer, int toLayer) {
+        ChunkPos sourceChunkPos = sourceChunk.getPos();
         int xOffset = targetChunkPos.getMinBlockX() - sourceChunkPos.getMinBlockX();
         int zOffset = targetChunkPos.getMinBlockZ() - sourceChunkPos.getMinBlockZ();
 
-        Block sealedBlock = Blocks.BEDROCK;
+        Block sealedBlock;
         if (targetLevel.getChunkSource().getGenerator() instanceof SkyChunkGenerator skyChunkGenerator && skyChunkGenerator.getGenerationType() == SkyChunkGenerator.EmptyGenerationType.Sealed) {
             sealedBlock = skyChunkGenerator.getSealBlock();
+        } else {
+            sealedBlock = Blocks.BEDROCK;
         }
+        Predicate<BlockState> replaceable = CompiledBlockPredicate.shared(new ReplaceableBlocks(sealedBlock), () -> state -> {
+            Block block = state.getBlock();
+            return block instanceof AirBlock || block instanceof LiquidBlock || block == Blocks.BEDROCK || block == sealedBlock || block == Blocks.SNOW;
+        });
 
+        if (fromLayer <= targetLevel.getMinBuildHeight() && toLayer > targetLevel.getMinBuildHeight()) {
+            SpawnedChunks.markSpawned(targetLevel, targetChunkPos);
+        }
+
+        LevelChunk targetChunk = targetLevel.getChunk(targetChunkPos.x, targetChunkPos.z);
         BlockPos.MutableBlockPos sourceBlock = new BlockPos.MutableBlockPos();
         BlockPos.MutableBlockPos targetBlock = new BlockPos.MutableBlockPos();
+        int maskSectionIndex = -1;
+        BitSet replaceableMask = null;
         for (int y = fromLayer; y < toLayer; y++) {
+            // Replaceable positions are found a section at a time from the section's palette
+            int sectionIndex = targetChunk.getSectionIndex(y);
+            if (sectionIndex != maskSectionIndex) {
+                maskSectionIndex = sectionIndex;
+                replaceableMask = (sectionIndex >= 0 && sectionIndex < targetChunk.getSectionsCount()) ? PaletteScanner.matching(targetChunk.getSection(sectionIndex).getStates(), replaceable) : null;
+            }
             for (int z = sourceChunkPos.getMinBlockZ(); z <= sourceChunkPos.getMaxBlockZ(); z++) {
                 for (int x = sourceChunkPos.getMinBlockX(); x <= sourceChunkPos.getMaxBlockX(); x++) {
                     sourceBlock.set(x, y, z);
                     targetBlock.set(x + xOffset, y, z + zOffset);
-                    Block existingBlock = targetLevel.getBlockState(targetBlock).getBlock();
-                    if (existingBlock instanceof AirBlock || existingBlock instanceof LiquidBlock || existingBlock == Blocks.BEDROCK || existingBlock == sealedBlock || existingBlock == Blocks.SNOW) {
-                        BlockState newBlock = sourceLevel.getBlockState(sourceBlock);
+                    boolean isReplaceable = (replaceableMask != null) ? replaceableMask.get(((y & 15) << 8) | ((z & 15) << 4) | (x & 15)) : replaceable.test(targetLevel.getBlockState(targetBlock));
+                    if (isReplaceable) {
+                        BlockState newBlock = sourceChunk.getBlockState(sourceBlock);
                         if (ChunkByChunkConfig.get().getGameplayConfig().isChunkSpawnLeafDecayDisabled() && newBlock.getBlock() instanceof LeavesBlock) {
                             newBlock = newBlock.setValue(LeavesBlock.PERSISTENT, true);
                         }
                         targetLevel.setBlock(targetBlock, newBlock, Block.UPDATE_ALL);
-                        BlockEntity fromBlockEntity = sourceLevel.getBlockEntity(sourceBlock);
+                        CompoundTag fromBlockEntity = newBlock.hasBlockEntity() ? sourceChunk.getBlockEntityNbtForSaving(sourceBlock) : null;
                         BlockEntity toBlockEntity = targetLevel.getBlockEntity(targetBlock);
                         if (fromBlockEntity != null && toBlockEntity != null) {
-                            toBlockEntity.load(fromBlockEntity.saveWithFullMetadata());
+                            toBlockEntity.load(fromBlockEntity);
                             targetLevel.setBlockEntity(toBlockEntity);
                         }
                     }
@@ -258,6 +322,11 @@ public class ChunkSpawnController extends SavedData {
             }
         }
         if (biomesUpdated) {
+            // The cached packet for a pristine chunk holds the old biomes, so must not be resent
+            if (targetChunk instanceof PristineChunk pristineChunk) {
+                pristineChunk.clearPristine();
+            }
+            UnspawnedChunkPacketCache.invalidate(targetLevel, targetChunkPos);
             ((ControllableChunkMap) targetLevel.getChunkSource().chunkMap).forceReloadChunk(targetChunkPos);
         }
     }
@@ -297,18 +366,20 @@ public class ChunkSpawnController extends SavedData {
         ChunkPos targetChunkPos = new ChunkPos(blockPos);
         if (isValidForLevel(level, biomeTheme, random) && SpawnChunkHelper.isEmptyChunk(level, targetChunkPos) && level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator) {
             ChunkPos sourceChunkPos;
-            if (random) {
-                Random rng = new Random(blockPos.asLong());
-                sourceChunkPos = new ChunkPos(rng.nextInt(Short.MIN_VALUE, Short.MAX_VALUE), rng.nextInt(Short.MIN_VALUE, Short.MAX_VALUE));
-            } else {
-                sourceChunkPos = new ChunkPos(targetChunkPos.x, targetChunkPos.z);
-            }
             ResourceKey<Level> sourceLevel;
             if (biomeTheme.isEmpty()) {
                 sourceLevel = generator.getGenerationLevel();
             } else {
                 sourceLevel = generator.getBiomeDimension(biomeTheme);
             }
+            if ((random || !biomeTheme.isEmpty()) && !immediate && (sourceChunkPos = SpawnSourcePool.get(server).take(sourceLevel)) != null) {
+                ChunkByChunkConstants.LOGGER.debug("Using pooled chunk {} from {}", sourceChunkPos, sourceLevel.location());
+            } else if (random) {
+                Random rng = new Random(blockPos.asLong());
+                sourceChunkPos = new ChunkPos(rng.nextInt(Short.MIN_VALUE, Short.MAX_VALUE), rng.nextInt(Short.MIN_VALUE, Short.MAX_VALUE));
+            } else {
+                sourceChunkPos = new ChunkPos(targetChunkPos.x, targetChunkPos.z);
+            }
             return request(targetChunkPos, level.dimension(), sourceChunkPos, sourceLevel, immediate);
         }
         return false;
@@ -317,13 +388,17 @@ public class ChunkSpawnController extends SavedData {
     public boolean request(ChunkPos targetChunkPos, ResourceKey<Level> targetLevel, ChunkPos sourceChunkPos, ResourceKey<Level> sourceLevel, boolean immediate) {
         SpawnRequest spawnRequest = new SpawnRequest(targetChunkPos, targetLevel, sourceChunkPos, sourceLevel, immediate);
         if (!spawnRequest.equals(currentSpawnRequest) && !requests.contains(spawnRequest)) {
+            ServerLevel spawnLevel = server.getLevel(targetLevel);
+            if (spawnLevel != null && spawnLevel.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator) {
+                generator.markSpawned(targetChunkPos);
+            }
             if (immediate) {
                 ServerLevel toLevel = server.getLevel(targetLevel);
                 ServerLevel fromLevel = server.getLevel(sourceLevel);
                 LevelChunk toChunk = toLevel.getChunk(targetChunkPos.x, targetChunkPos.z);
                 LevelChunk fromChunk = fromLevel.getChunk(sourceChunkPos.x, sourceChunkPos.z);
                 updateBiomes(fromLevel, fromChunk, toLevel, toChunk, targetChunkPos);
-                copyBlocks(fromLevel, spawnRequest.sourceChunkPos, toLevel, spawnRequest.targetChunkPos, toLevel.getMinBuildHeight(), toLevel.getMaxBuildHeight() + 1);
+                copyBlocks(fromChunk, toLevel, spawnRequest.targetChunkPos, toLevel.getMinBuildHeight(), toLevel.getMaxBuildHeight() + 1);
                 requests.addFirst(spawnRequest);
             } else {
                 requests.add(spawnRequest);
@@ -382,6 +457,12 @@ public class ChunkSpawnController extends SavedData {
         }
     }
 
+    /**
+     * Key for the shared predicate of blocks that spawned chunks may replace, which depends on the seal block
+     */
+    private record ReplaceableBlocks(Block sealedBlock) {
+    }
+
     private enum SpawnPhase {
         COPY_BIOMES,
         SPAWN_BLOCKS,
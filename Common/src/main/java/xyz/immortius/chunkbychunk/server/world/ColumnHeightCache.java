@@ -0,0 +1,100 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.RandomState;
+
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A bounded cache of the base column heights a chunk generator produces, filled a whole chunk at a time. The cache is safe
+ * to use from generation worker threads - concurrent requests for the same chunk wait on a single computation.
+ * <p>
+ * Caches are shared per generator, so every sky dimension wrapping the same generator instance reuses the same heights.
+ * The generator's own height queries (such as those of the generation dimension) are left alone. Only heights computed
+ * by the generator's getBaseHeight are cached - the heightmaps of filled chunks differ from these around structures (which reshape the terrain around them), so
+ * using them would make height queries depend on generation order.
+ */
+public final class ColumnHeightCache {
+
+    private static final int MAX_CHUNKS = 4096;
+    private static final Map<ChunkGenerator, ColumnHeightCache> SHARED_CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Weakly held, as the cache is itself the value of a weak map keyed by the generator
+    private final WeakReference<ChunkGenerator> generator;
+    private final Cache<Key, int[]> heights = CacheBuilder.newBuilder().maximumSize(MAX_CHUNKS).concurrencyLevel(Runtime.getRuntime().availableProcessors()).build();
+
+    /**
+     * @param generator The generator to determine heights with
+     * @return The shared height cache for the generator
+     */
+    public static ColumnHeightCache forGenerator(ChunkGenerator generator) {
+        return SHARED_CACHES.computeIfAbsent(generator, ColumnHeightCache::new);
+    }
+
+    /**
+     * @param generator The generator
+     * @return The shared height cache for the generator, or null if nothing uses a height cache for it
+     */
+    @Nullable
+    public static ColumnHeightCache getIfShared(ChunkGenerator generator) {
+        return SHARED_CACHES.get(generator);
+    }
+
+    private ColumnHeightCache(ChunkGenerator generator) {
+        this.generator = new WeakReference<>(generator);
+    }
+
+    /**
+     * @param x The x coord of the column
+     * @param z The z coord of the column
+     * @param type The type of heightmap to determine the height for
+     * @param heightAccessor The height accessor of the level
+     * @param randomState The random state of the level
+     * @return The base height of the column, as would be returned by the generator's getBaseHeight
+     */
+    public int getHeight(int x, int z, Heightmap.Types type, LevelHeightAccessor heightAccessor, RandomState randomState) {
+        return getHeights(new ChunkPos(x >> 4, z >> 4), type, heightAccessor, randomState)[(x & 15) + (z & 15) * 16];
+    }
+
+    /**
+     * @param pos The chunk to get the heights of
+     * @param type The type of heightmap to determine the heights for
+     * @param heightAccessor The height accessor of the level
+     * @param randomState The random state of the level
+     * @return The base height of each column of the chunk, indexed by x + z * 16. This array is shared and must not be modified.
+     */
+    public int[] getHeights(ChunkPos pos, Heightmap.Types type, LevelHeightAccessor heightAccessor, RandomState randomState) {
+        Key key = new Key(pos.toLong(), type, heightAccessor.getMinBuildHeight(), heightAccessor.getHeight());
+        try {
+            return heights.get(key, () -> computeHeights(pos, type, heightAccessor, randomState));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("Failed to determine column heights for " + pos, e.getCause());
+        }
+    }
+
+    private int[] computeHeights(ChunkPos pos, Heightmap.Types type, LevelHeightAccessor heightAccessor, RandomState randomState) {
+        ChunkGenerator generator = Objects.requireNonNull(this.generator.get(), "Generator no longer available");
+        int[] result = new int[16 * 16];
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                result[x + z * 16] = generator.getBaseHeight(pos.getMinBlockX() + x, pos.getMinBlockZ() + z, type, heightAccessor, randomState);
+            }
+        }
+        return result;
+    }
+
+    private record Key(long chunkPos, Heightmap.Types type, int minBuildHeight, int height) {
+    }
+}
@@ -0,0 +1,18 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+/**
+ * Tracks whether a chunk is unchanged since it was generated
+ */
+public interface PristineChunk {
+
+    /**
+     * @return Whether the chunk is an unspawned sky chunk whose blocks are unchanged since it was generated
+     */
+    boolean isPristine();
+
+    /**
+     * Marks the chunk as changed outside of block placement (such as its biomes being replaced), dropping any packet cached
+     * for it while it was pristine
+     */
+    void clearPristine();
+}
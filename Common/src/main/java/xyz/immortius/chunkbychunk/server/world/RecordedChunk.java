@@ -0,0 +1,22 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import net.minecraft.nbt.CompoundTag;
+
+import javax.annotation.Nullable;
+
+/**
+ * A chunk that may be pending generation from the record of an unspawned chunk
+ */
+public interface RecordedChunk {
+
+    /**
+     * @return The record the chunk is to be generated from, or null if there is none
+     */
+    @Nullable
+    CompoundTag getUnspawnedRecord();
+
+    /**
+     * @param record The record the chunk is to be generated from, or null once it has been generated
+     */
+    void setUnspawnedRecord(@Nullable CompoundTag record);
+}
@@ -1,5 +1,7 @@
 package xyz.immortius.chunkbychunk.server.world;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.Codec;
@@ -7,23 +9,26 @@ import com.mojang.serialization.Lifecycle;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import net.minecraft.Util;
 import net.minecraft.core.*;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.WorldGenRegion;
+import net.minecraft.util.Mth;
 import net.minecraft.util.random.WeightedRandomList;
 import net.minecraft.world.entity.MobCategory;
 import net.minecraft.world.level.*;
 import net.minecraft.world.level.biome.*;
-import net.minecraft.world.level.block.AirBlock;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
-import net.minecraft.world.level.chunk.ChunkAccess;
-import net.minecraft.world.level.chunk.ChunkGenerator;
-import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.*;
 import net.minecraft.world.level.levelgen.*;
 import net.minecraft.world.level.levelgen.blending.Blender;
 import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
+import net.minecraft.world.level.lighting.LevelLightEngine;
 
 import javax.annotation.Nullable;
 import java.util.*;
@@ -46,12 +51,24 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
                     .apply(encoded, encoded.stable(SkyChunkGenerator::new))
     );
 
+    /** Spacing (in blocks) between the surface height samples taken for sealed chunks */
+    private static final int SEAL_HEIGHT_SAMPLE_SPACING = 4;
+    private static final int MAX_STRUCTURE_SEARCHES = 256;
+
     private final ChunkGenerator parent;
+    private final ColumnHeightCache columnHeights;
+    private final StructureShare structureShare;
+    private final Cache<StructureSearch, SearchResult> structureSearches = CacheBuilder.newBuilder().maximumSize(MAX_STRUCTURE_SEARCHES).build();
     private ResourceKey<Level> generationLevel;
     private List<ResourceKey<Level>> synchedLevels = new ArrayList<>();
     private int initialChunks;
     private boolean chunkSpawnerAllowed;
     private boolean randomChunkSpawnerAllowed;
+    private boolean ephemeralGenerationLevels;
+    private int unspawnedDetailMargin = -1;
+    @Nullable
+    private volatile SpawnedArea spawnedArea;
+    private volatile boolean spawnedAreaComplete;
 
     private EmptyGenerationType generationType = EmptyGenerationType.Normal;
     private Block sealBlock;
@@ -87,10 +104,14 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
     public SkyChunkGenerator(ChunkGenerator parent) {
         super(parent.getBiomeSource(), ChunkGeneratorAccess.getNoiseGeneratorSettings(parent));
         this.parent = parent;
+        this.columnHeights = ColumnHeightCache.forGenerator(parent);
+        this.structureShare = StructureShare.forGenerator(parent);
     }
 
-    public void configure(ResourceKey<Level> generationLevel, EmptyGenerationType generationType, Block sealBlock, Block sealCoverBlock, int initialChunks, boolean chunkSpawnerAllowed, boolean randomChunkSpawnerAllowed) {
+    public void configure(ResourceKey<Level> generationLevel, EmptyGenerationType generationType, Block sealBlock, Block sealCoverBlock, int initialChunks, boolean chunkSpawnerAllowed, boolean randomChunkSpawnerAllowed, boolean ephemeralGenerationLevels, int unspawnedDetailMargin) {
         this.generationLevel = generationLevel;
+        this.ephemeralGenerationLevels = ephemeralGenerationLevels;
+        this.unspawnedDetailMargin = unspawnedDetailMargin;
         this.generationType = generationType;
         this.initialChunks = initialChunks;
         this.chunkSpawnerAllowed = chunkSpawnerAllowed;
@@ -143,6 +164,13 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
         return biomeDimensions.get(name);
     }
 
+    /**
+     * @return The theme levels of this dimension
+     */
+    public Collection<ResourceKey<Level>> getBiomeDimensions() {
+        return Collections.unmodifiableCollection(biomeDimensions.values());
+    }
+
     public int getInitialChunks() {
         return initialChunks;
     }
@@ -155,6 +183,65 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
         return generationLevel;
     }
 
+    /**
+     * @param level The level to check
+     * @return Whether the given level is the generation level or a theme level of this dimension
+     */
+    public boolean isSourceLevel(ResourceKey<Level> level) {
+        return level.equals(generationLevel) || biomeDimensions.containsValue(level);
+    }
+
+    /**
+     * @return Whether the generation and theme levels of this dimension should not be saved
+     */
+    public boolean isEphemeralGenerationLevels() {
+        return ephemeralGenerationLevels;
+    }
+
+    /**
+     * @return The bounds of the chunks that have been spawned in this dimension, or null if not known
+     */
+    @Nullable
+    public SpawnedArea getSpawnedArea() {
+        return spawnedArea;
+    }
+
+    /**
+     * Expands the spawned area to include another area
+     * @param other The area to include
+     */
+    public void includeSpawnedArea(SpawnedArea other) {
+        SpawnedArea area = spawnedArea;
+        spawnedArea = (area == null) ? other : area.include(other);
+    }
+
+    /**
+     * @param spawnedAreaComplete Whether the spawned area is known to include every spawned chunk. Until it is, unspawned
+     *                            chunks are all generated in full detail, as chunks spawned before it was tracked may be
+     *                            anywhere.
+     */
+    public void setSpawnedAreaComplete(boolean spawnedAreaComplete) {
+        this.spawnedAreaComplete = spawnedAreaComplete;
+    }
+
+    /**
+     * Expands the spawned area to include a chunk
+     * @param pos The chunk that has been spawned
+     */
+    public void markSpawned(ChunkPos pos) {
+        SpawnedArea area = spawnedArea;
+        spawnedArea = (area == null) ? new SpawnedArea(pos.x, pos.z, pos.x, pos.z) : area.include(pos);
+    }
+
+    /**
+     * @param pos A chunk position
+     * @return Whether an unspawned chunk at the given position should be generated in full detail
+     */
+    private boolean isWithinDetailMargin(ChunkPos pos) {
+        SpawnedArea area = spawnedArea;
+        return unspawnedDetailMargin < 0 || !spawnedAreaComplete || area == null || area.distanceTo(pos) <= unspawnedDetailMargin;
+    }
+
     @Override
     protected Codec<? extends ChunkGenerator> codec() {
         return CODEC;
@@ -163,45 +250,269 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
     @Override
     public CompletableFuture<ChunkAccess> fillFromNoise(Executor executor, Blender blender, RandomState randomState, StructureManager structureManager, ChunkAccess chunk) {
         return switch (generationType) {
-            case Sealed -> parent.fillFromNoise(executor, blender, randomState, structureManager, chunk).whenCompleteAsync((chunkAccess, throwable) -> {
-
-                BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos(0, 0, 0);
-                for (blockPos.setZ(0); blockPos.getZ() < 16; blockPos.setZ(blockPos.getZ() + 1)) {
-                    for (blockPos.setX(0); blockPos.getX() < 16; blockPos.setX(blockPos.getX() + 1)) {
-                        blockPos.setY(chunkAccess.getMaxBuildHeight() - 1);
-                        while (blockPos.getY() > chunkAccess.getMinBuildHeight() && chunkAccess.getBlockState(blockPos).getBlock() instanceof AirBlock) {
-                            blockPos.setY(blockPos.getY() - 1);
-                        }
-                        if (sealCoverBlock != null) {
-                            blockPos.setY(blockPos.getY() + 1);
-                            chunkAccess.setBlockState(blockPos, sealCoverBlock.defaultBlockState(), false);
-                            blockPos.setY(blockPos.getY() - 1);
+            case Sealed -> CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("wgen_fill_noise", () -> {
+                fillSealed(chunk, getSealedSurfaceHeights(chunk, randomState));
+                return chunk;
+            }), executor);
+            case Nether -> CompletableFuture.supplyAsync(Util.wrapThreadWithTaskName("wgen_fill_noise", () -> {
+                fillNether(chunk);
+                return chunk;
+            }), executor);
+            default -> CompletableFuture.completedFuture(chunk);
+        };
+    }
+
+    /**
+     * Fills a sealed chunk. Each column is void air at the bottom, then bedrock, then the seal block up to the surface with
+     * the cover block on top. Sections entirely within the seal of every column are replaced with a single value section,
+     * only the remaining sections are written block by block.
+     * @param chunk The chunk to fill
+     * @param surfaceHeights The height of the first air block above the surface for each column
+     */
+    private void fillSealed(ChunkAccess chunk, int[] surfaceHeights) {
+        int minY = chunk.getMinBuildHeight();
+        int[] tops = new int[surfaceHeights.length];
+        int lowestTop = Integer.MAX_VALUE;
+        int highestTop = Integer.MIN_VALUE;
+        for (int i = 0; i < surfaceHeights.length; i++) {
+            tops[i] = Math.max(surfaceHeights[i] - 1, minY + 1);
+            lowestTop = Math.min(lowestTop, tops[i]);
+            highestTop = Math.max(highestTop, tops[i]);
+        }
+        BlockState seal = sealBlock.defaultBlockState();
+        BlockState cover = (sealCoverBlock != null) ? sealCoverBlock.defaultBlockState() : null;
+        int coverHeight = (cover != null) ? 1 : 0;
+
+        LevelChunkSection[] sections = chunk.getSections();
+        for (int index = 0; index < sections.length; index++) {
+            int sectionMinY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(index));
+            int sectionMaxY = sectionMinY + LevelChunkSection.SECTION_HEIGHT - 1;
+            if (sectionMinY > highestTop + coverHeight) {
+                break;
+            }
+            if (sectionMinY >= minY + 2 && sectionMaxY <= lowestTop) {
+                sections[index] = new LevelChunkSection(chunk.getSectionYFromSectionIndex(index), new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, seal, PalettedContainer.Strategy.SECTION_STATES), sections[index].getBiomes());
+                if (seal.getLightEmission() != 0 && chunk instanceof ProtoChunk protoChunk) {
+                    BlockPos.betweenClosed(chunk.getPos().getMinBlockX(), sectionMinY, chunk.getPos().getMinBlockZ(), chunk.getPos().getMaxBlockX(), sectionMaxY, chunk.getPos().getMaxBlockZ()).forEach(protoChunk::addLight);
+                }
+                continue;
+            }
+            LevelChunkSection section = sections[index];
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int top = tops[x + z * 16];
+                    int maxY = Math.min(sectionMaxY, top + coverHeight);
+                    for (int y = Math.max(sectionMinY, minY); y <= maxY; y++) {
+                        BlockState state;
+                        if (y == minY) {
+                            state = Blocks.VOID_AIR.defaultBlockState();
+                        } else if (y == minY + 1) {
+                            state = Blocks.BEDROCK.defaultBlockState();
+                        } else if (y <= top) {
+                            state = seal;
+                        } else {
+                            state = cover;
                         }
-                        while (blockPos.getY() > chunkAccess.getMinBuildHeight() + 1) {
-                            chunkAccess.setBlockState(blockPos, sealBlock.defaultBlockState(), false);
-                            blockPos.setY(blockPos.getY() - 1);
+                        setSectionBlockState(chunk, section, x, y, z, state);
+                    }
+                }
+            }
+        }
+        Heightmap.primeHeightmaps(chunk, EnumSet.of(Heightmap.Types.OCEAN_FLOOR_WG, Heightmap.Types.WORLD_SURFACE_WG));
+    }
+
+    /**
+     * Fills a nether chunk - a floor of lava and a bedrock ceiling
+     * @param chunk The chunk to fill
+     */
+    private void fillNether(ChunkAccess chunk) {
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                setSectionBlockState(chunk, x, chunk.getMinBuildHeight(), z, Blocks.LAVA.defaultBlockState());
+                setSectionBlockState(chunk, x, chunk.getMinBuildHeight() + 1, z, Blocks.LAVA.defaultBlockState());
+                setSectionBlockState(chunk, x, 127, z, Blocks.BEDROCK.defaultBlockState());
+            }
+        }
+        Heightmap.primeHeightmaps(chunk, EnumSet.of(Heightmap.Types.OCEAN_FLOOR_WG, Heightmap.Types.WORLD_SURFACE_WG));
+    }
+
+    private static void setSectionBlockState(ChunkAccess chunk, int x, int y, int z, BlockState state) {
+        if (!chunk.isOutsideBuildHeight(y)) {
+            setSectionBlockState(chunk, chunk.getSection(chunk.getSectionIndex(y)), x, y, z, state);
+        }
+    }
+
+    /**
+     * Sets a block state directly in a section, as the noise fill does - bypassing per-block heightmap updates, which are
+     * instead primed once the chunk is filled.
+     */
+    private static void setSectionBlockState(ChunkAccess chunk, LevelChunkSection section, int x, int y, int z, BlockState state) {
+        section.setBlockState(x, SectionPos.sectionRelative(y), z, state, false);
+        if (state.getLightEmission() != 0 && chunk instanceof ProtoChunk protoChunk) {
+            protoChunk.addLight(new BlockPos(chunk.getPos().getMinBlockX() + x, y, chunk.getPos().getMinBlockZ() + z));
+        }
+    }
+
+    /**
+     * Determines the surface height of each column of a sealed chunk. Rather than running the parent's full noise fill, the
+     * parent's surface height is sampled on a coarse grid (including the edge shared with the neighbouring chunks) and
+     * interpolated between samples. The surface is always interpolated, even when the exact heights are known, so a chunk
+     * comes out the same regardless of generation order and matches its neighbours. If the chunk is being rebuilt from an
+     * unspawned record, the recorded heights are used. Chunks too far from the spawned area are given a flat placeholder surface at sea level.
+     * @param chunk The chunk being generated
+     * @param randomState The random state of the level
+     * @return The height of the first air block above the surface for each column, indexed by x + z * 16
+     */
+    private int[] getSealedSurfaceHeights(ChunkAccess chunk, RandomState randomState) {
+        if (chunk instanceof RecordedChunk recordedChunk && recordedChunk.getUnspawnedRecord() != null) {
+            CompoundTag record = recordedChunk.getUnspawnedRecord();
+            recordedChunk.setUnspawnedRecord(null);
+            if (record.contains("surface", Tag.TAG_INT_ARRAY)) {
+                return record.getIntArray("surface");
+            }
+        }
+        if (!isWithinDetailMargin(chunk.getPos())) {
+            int[] placeholderHeights = new int[16 * 16];
+            Arrays.fill(placeholderHeights, getSeaLevel());
+            return placeholderHeights;
+        }
+        int samplesPerSide = 16 / SEAL_HEIGHT_SAMPLE_SPACING + 1;
+        int[] samples = new int[samplesPerSide * samplesPerSide];
+        for (int sampleZ = 0; sampleZ < samplesPerSide; sampleZ++) {
+            for (int sampleX = 0; sampleX < samplesPerSide; sampleX++) {
+                samples[sampleX + sampleZ * samplesPerSide] = parent.getBaseHeight(chunk.getPos().getMinBlockX() + sampleX * SEAL_HEIGHT_SAMPLE_SPACING, chunk.getPos().getMinBlockZ() + sampleZ * SEAL_HEIGHT_SAMPLE_SPACING, Heightmap.Types.WORLD_SURFACE_WG, chunk, randomState);
+            }
+        }
+
+        int[] heights = new int[16 * 16];
+        for (int z = 0; z < 16; z++) {
+            int sampleZ = z / SEAL_HEIGHT_SAMPLE_SPACING;
+            double deltaZ = (double) (z % SEAL_HEIGHT_SAMPLE_SPACING) / SEAL_HEIGHT_SAMPLE_SPACING;
+            for (int x = 0; x < 16; x++) {
+                int sampleX = x / SEAL_HEIGHT_SAMPLE_SPACING;
+                double deltaX = (double) (x % SEAL_HEIGHT_SAMPLE_SPACING) / SEAL_HEIGHT_SAMPLE_SPACING;
+                heights[x + z * 16] = (int) Math.round(Mth.lerp2(deltaX, deltaZ,
+                        samples[sampleX + sampleZ * samplesPerSide],
+                        samples[sampleX + 1 + sampleZ * samplesPerSide],
+                        samples[sampleX + (sampleZ + 1) * samplesPerSide],
+                        samples[sampleX + 1 + (sampleZ + 1) * samplesPerSide]));
+            }
+        }
+        return heights;
+    }
+
+    /**
+     * Creates the sky light for a freshly generated unspawned chunk, so it doesn't need to be run through the light engine.
+     * This is possible for void chunks and for sealed chunks where the seal fully blocks light - every block open to
+     * the sky is fully lit and everything else is dark. Chunks with light emitting blocks are not handled.
+     * @param chunk The chunk to create light for
+     * @return The sky light of each section of the chunk, by section index, or null if it cannot be precomputed
+     */
+    @Nullable
+    public DataLayer[] createUnspawnedSkyLight(ChunkAccess chunk) {
+        Heightmap surface;
+        int coverLight;
+        switch (generationType) {
+            case Normal -> {
+                surface = null;
+                coverLight = 0;
+            }
+            case Sealed -> {
+                BlockState seal = sealBlock.defaultBlockState();
+                if (seal.getLightEmission() != 0 || seal.getLightBlock(EmptyBlockGetter.INSTANCE, BlockPos.ZERO) < LevelLightEngine.MAX_SOURCE_LEVEL) {
+                    return null;
+                }
+                if (sealCoverBlock != null) {
+                    BlockState cover = sealCoverBlock.defaultBlockState();
+                    int coverLightBlock = cover.getLightBlock(EmptyBlockGetter.INSTANCE, BlockPos.ZERO);
+                    if (cover.getLightEmission() != 0 || (coverLightBlock != 0 && coverLightBlock < LevelLightEngine.MAX_SOURCE_LEVEL)) {
+                        return null;
+                    }
+                    coverLight = (coverLightBlock == 0) ? LevelLightEngine.MAX_SOURCE_LEVEL : 0;
+                } else {
+                    coverLight = 0;
+                }
+                surface = chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE_WG);
+            }
+            default -> {
+                return null;
+            }
+        }
+
+        DataLayer[] result = new DataLayer[chunk.getSectionsCount()];
+        for (int index = 0; index < result.length; index++) {
+            int sectionMinY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(index));
+            DataLayer layer = new DataLayer();
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int firstAir = (surface == null) ? chunk.getMinBuildHeight() : surface.getFirstAvailable(x, z);
+                    for (int y = 0; y < LevelChunkSection.SECTION_HEIGHT; y++) {
+                        int blockY = sectionMinY + y;
+                        if (blockY >= firstAir) {
+                            layer.set(x, y, z, LevelLightEngine.MAX_SOURCE_LEVEL);
+                        } else if (sealCoverBlock != null && blockY == firstAir - 1) {
+                            layer.set(x, y, z, coverLight);
                         }
-                        chunkAccess.setBlockState(blockPos, Blocks.BEDROCK.defaultBlockState(), false);
-                        blockPos.setY(blockPos.getY() - 1);
-                        chunkAccess.setBlockState(blockPos, Blocks.VOID_AIR.defaultBlockState(), false);
                     }
                 }
-            });
-            case Nether -> CompletableFuture.completedFuture(chunk).whenCompleteAsync((chunkAccess, throwable) -> {
-                BlockPos.MutableBlockPos blockPos = new BlockPos.MutableBlockPos(0, 0, 0);
-                for (blockPos.setZ(0); blockPos.getZ() < 16; blockPos.setZ(blockPos.getZ() + 1)) {
-                    for (blockPos.setX(0); blockPos.getX() < 16; blockPos.setX(blockPos.getX() + 1)) {
-                        blockPos.setY(chunkAccess.getMinBuildHeight());
-                        chunkAccess.setBlockState(blockPos, Blocks.LAVA.defaultBlockState(), false);
-                        blockPos.setY(chunkAccess.getMinBuildHeight() + 1);
-                        chunkAccess.setBlockState(blockPos, Blocks.LAVA.defaultBlockState(), false);
-                        blockPos.setY(127);
-                        chunkAccess.setBlockState(blockPos, Blocks.BEDROCK.defaultBlockState(), false);
+            }
+            result[index] = layer;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a compact record of an unspawned chunk, from which it can be generated again identically
+     * @param chunk An unspawned chunk, unchanged since it was generated
+     * @return The record, or null if the chunk cannot be recorded
+     */
+    @Nullable
+    public CompoundTag createUnspawnedRecord(ChunkAccess chunk) {
+        CompoundTag record = new CompoundTag();
+        record.putString("type", generationType.name());
+        switch (generationType) {
+            case Normal, Nether -> {
+                return record;
+            }
+            case Sealed -> {
+                record.putString("seal", BuiltInRegistries.BLOCK.getKey(sealBlock).toString());
+                record.putString("cover", (sealCoverBlock != null) ? BuiltInRegistries.BLOCK.getKey(sealCoverBlock).toString() : "");
+                // Reverse of the fill - the surface height is the first air block above the seal, below the cover
+                Heightmap surface = chunk.getOrCreateHeightmapUnprimed(Heightmap.Types.WORLD_SURFACE);
+                int coverHeight = (sealCoverBlock != null) ? 1 : 0;
+                int[] heights = new int[16 * 16];
+                boolean flat = true;
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        heights[x + z * 16] = surface.getFirstAvailable(x, z) - coverHeight;
+                        flat &= heights[x + z * 16] == getSeaLevel();
                     }
                 }
-            });
-            default -> CompletableFuture.completedFuture(chunk);
-        };
+                // A flat surface at sea level may be a placeholder - don't record it so the surface is redetermined on load
+                if (!flat) {
+                    record.putIntArray("surface", heights);
+                }
+                return record;
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the record of an unspawned chunk that is being loaded can be used to generate it. Only sealed chunks
+     * need records, as other types generate the same without them. Records from a different generation configuration
+     * can't be used - the chunk is generated with the current configuration instead.
+     * @param record The record of the chunk
+     * @return Whether the chunk should be generated from the record
+     */
+    public boolean isUsableUnspawnedRecord(CompoundTag record) {
+        if (generationType != EmptyGenerationType.Sealed || !generationType.name().equals(record.getString("type"))) {
+            return false;
+        }
+        String cover = (sealCoverBlock != null) ? BuiltInRegistries.BLOCK.getKey(sealCoverBlock).toString() : "";
+        return BuiltInRegistries.BLOCK.getKey(sealBlock).toString().equals(record.getString("seal")) && cover.equals(record.getString("cover"));
     }
 
     @Override
@@ -221,9 +532,33 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
     public void applyCarvers(WorldGenRegion region, long p_223044_, RandomState randomState, BiomeManager biomeManager, StructureManager structureManager, ChunkAccess chunk, GenerationStep.Carving carving) {
     }
 
+    /**
+     * Finds the nearest structure. Searches that don't skip known structures are cached by structure set, origin and search
+     * radius, so repeated searches (such as a cartographer's maps, or eyes of ender thrown from the same spot) are only
+     * performed once. Cached results are discarded once any structure in the set has been generated since they were found.
+     */
     @Override
-    public Pair<BlockPos, Holder<Structure>> findNearestMapStructure(ServerLevel level, HolderSet<Structure> structure, BlockPos pos, int p_223041_, boolean p_223042_) {
-        return parent.findNearestMapStructure(level, structure, pos, p_223041_, p_223042_);
+    public Pair<BlockPos, Holder<Structure>> findNearestMapStructure(ServerLevel level, HolderSet<Structure> structure, BlockPos pos, int searchRadius, boolean skipKnownStructures) {
+        if (skipKnownStructures) {
+            return parent.findNearestMapStructure(level, structure, pos, searchRadius, true);
+        }
+        StructureSearch search = new StructureSearch(structure, pos.immutable(), searchRadius);
+        long version = getStructuresVersion(structure);
+        SearchResult cachedResult = structureSearches.getIfPresent(search);
+        if (cachedResult != null && cachedResult.version() == version) {
+            return cachedResult.result().orElse(null);
+        }
+        Pair<BlockPos, Holder<Structure>> result = parent.findNearestMapStructure(level, structure, pos, searchRadius, false);
+        structureSearches.put(search, new SearchResult(version, Optional.ofNullable(result)));
+        return result;
+    }
+
+    private long getStructuresVersion(HolderSet<Structure> structures) {
+        long version = 0;
+        for (Holder<Structure> structure : structures) {
+            version += structureShare.getGeneratedVersion(structure.value());
+        }
+        return version;
     }
 
     @Override
@@ -262,6 +597,9 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
         return parent.getMobsAt(biome, structureManager, mobCategory, pos);
     }
 
+    /**
+     * Structures are created by the parent generator, which shares them with the generation dimension (see {@link StructureShare})
+     */
     @Override
     public void createStructures(RegistryAccess registry, ChunkGeneratorStructureState state, StructureManager structureManager, ChunkAccess chunk, StructureTemplateManager structureTemplateManager) {
         parent.createStructures(registry, state, structureManager, chunk, structureTemplateManager);
@@ -284,7 +622,7 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
 
     @Override
     public int getBaseHeight(int x, int z, Heightmap.Types type, LevelHeightAccessor heightAccessor, RandomState randomState) {
-        return parent.getBaseHeight(x, z, type, heightAccessor, randomState);
+        return columnHeights.getHeight(x, z, type, heightAccessor, randomState);
     }
 
     @Override
@@ -294,12 +632,12 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
 
     @Override
     public int getFirstFreeHeight(int x, int z, Heightmap.Types type, LevelHeightAccessor heightAccessor, RandomState randomState) {
-        return parent.getBaseHeight(x, z, type, heightAccessor, randomState);
+        return columnHeights.getHeight(x, z, type, heightAccessor, randomState);
     }
 
     @Override
     public int getFirstOccupiedHeight(int x, int z, Heightmap.Types type, LevelHeightAccessor heightAccessor, RandomState randomState) {
-        return parent.getBaseHeight(x, z, type, heightAccessor, randomState) - 1;
+        return columnHeights.getHeight(x, z, type, heightAccessor, randomState) - 1;
     }
 
     @Override
@@ -316,4 +654,33 @@ public class SkyChunkGenerator extends NoiseBasedChunkGenerator {
         return parent.getBiomeGenerationSettings(biome);
     }
 
+    /**
+     * The bounds of the spawned chunks of a dimension
+     */
+    public record SpawnedArea(int minX, int minZ, int maxX, int maxZ) {
+
+        public SpawnedArea include(ChunkPos pos) {
+            return new SpawnedArea(Math.min(minX, pos.x), Math.min(minZ, pos.z), Math.max(maxX, pos.x), Math.max(maxZ, pos.z));
+        }
+
+        public SpawnedArea include(SpawnedArea other) {
+            return new SpawnedArea(Math.min(minX, other.minX), Math.min(minZ, other.minZ), Math.max(maxX, other.maxX), Math.max(maxZ, other.maxZ));
+        }
+
+        /**
+         * @param pos A chunk position
+         * @return The distance (in chunks, along the furthest axis) of the chunk from the area
+         */
+        public int distanceTo(ChunkPos pos) {
+            int xDist = Math.max(0, Math.max(minX - pos.x, pos.x - maxX));
+            int zDist = Math.max(0, Math.max(minZ - pos.z, pos.z - maxZ));
+            return Math.max(xDist, zDist);
+        }
+    }
+
+    private record StructureSearch(HolderSet<Structure> structures, BlockPos origin, int searchRadius) {
+    }
+
+    private record SearchResult(long version, Optional<Pair<BlockPos, Holder<Structure>>> result) {
+    }
 }
@@ -1,9 +1,12 @@
 package xyz.immortius.chunkbychunk.server.world;
 
 import com.google.gson.Gson;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.packs.resources.Resource;
 import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.world.level.Level;
 import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
 import xyz.immortius.chunkbychunk.common.data.SkyDimensionData;
 
@@ -12,6 +15,7 @@ import java.io.InputStreamReader;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class SkyDimensions {
 
@@ -19,6 +23,7 @@ public final class SkyDimensions {
     }
 
     private static final Map<ResourceLocation, SkyDimensionData> skyDimensions = new LinkedHashMap<>();
+    private static final Map<ResourceKey<Level>, Boolean> ephemeralLevels = new ConcurrentHashMap<>();
 
     public static void loadSkyDimensionData(ResourceManager resourceManager, Gson gson) {
         int count = 0;
@@ -38,4 +43,34 @@ public final class SkyDimensions {
     public static Map<ResourceLocation, SkyDimensionData> getSkyDimensions() {
         return Collections.unmodifiableMap(skyDimensions);
     }
+
+    /**
+     * @param level The level to check
+     * @return Whether the level is a generation or theme level of a sky dimension that has been configured to not persist its chunks.
+     */
+    public static boolean isEphemeralGenerationLevel(ServerLevel level) {
+        Boolean cached = ephemeralLevels.get(level.dimension());
+        if (cached != null) {
+            return cached;
+        }
+        boolean ephemeral = false;
+        for (ServerLevel skyLevel : level.getServer().getAllLevels()) {
+            if (skyLevel.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator && generator.isEphemeralGenerationLevels() && generator.isSourceLevel(level.dimension())) {
+                ephemeral = true;
+                break;
+            }
+        }
+        // Sky dimensions may not all be loaded while the server is starting, so only a positive answer is final until it is running
+        if (ephemeral || level.getServer().isReady()) {
+            ephemeralLevels.put(level.dimension(), ephemeral);
+        }
+        return ephemeral;
+    }
+
+    /**
+     * Forgets which levels are ephemeral, for when a different world is started
+     */
+    public static void clearEphemeralLevels() {
+        ephemeralLevels.clear();
+    }
 }
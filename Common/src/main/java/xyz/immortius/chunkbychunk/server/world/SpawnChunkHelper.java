@@ -9,6 +9,7 @@ import net.minecraft.world.level.block.*;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.RandomizableContainerBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.portal.PortalInfo;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
@@ -37,15 +38,47 @@ public final class SpawnChunkHelper {
     }
 
     /**
-     * Checks whether a chunk is 'empty'. A chunk is empty of it doesn't have bedrock on its lowest level.
+     * Checks whether a chunk is 'empty'. A chunk is empty of it doesn't have bedrock on its lowest level. For sky
+     * dimensions this is answered from the registry of spawned chunks where possible, without reading the chunk.
      *
      * @param level    The level to check
      * @param chunkPos The chunk position to check
      * @return Whether the chunk is 'empty' and thus ready to be spawned into.
      */
     public static boolean isEmptyChunk(LevelAccessor level, ChunkPos chunkPos) {
+        if (level instanceof ServerLevel serverLevel && serverLevel.getChunkSource().getGenerator() instanceof SkyChunkGenerator) {
+            SpawnedChunks spawnedChunks = SpawnedChunks.get(serverLevel);
+            if (spawnedChunks.contains(chunkPos)) {
+                return false;
+            }
+            if (spawnedChunks.isKnownEmpty(chunkPos)) {
+                return true;
+            }
+            if (!hasBedrockFloor(level, chunkPos)) {
+                spawnedChunks.markEmpty(chunkPos);
+                return true;
+            }
+            // Spawned before the registry existed
+            SpawnedChunks.markSpawned(serverLevel, chunkPos);
+            return false;
+        }
+        return !hasBedrockFloor(level, chunkPos);
+    }
+
+    private static boolean hasBedrockFloor(LevelAccessor level, ChunkPos chunkPos) {
         BlockPos bedrockCheckBlock = chunkPos.getMiddleBlockPosition(level.getMinBuildHeight());
-        return !Blocks.BEDROCK.equals(level.getBlockState(bedrockCheckBlock).getBlock());
+        return Blocks.BEDROCK.equals(level.getBlockState(bedrockCheckBlock).getBlock());
+    }
+
+    /**
+     * Checks whether a chunk is 'empty', as per {@link #isEmptyChunk(LevelAccessor, ChunkPos)}
+     *
+     * @param chunk The chunk to check
+     * @return Whether the chunk is 'empty' and thus ready to be spawned into.
+     */
+    public static boolean isEmptyChunk(ChunkAccess chunk) {
+        BlockPos bedrockCheckBlock = chunk.getPos().getMiddleBlockPosition(chunk.getMinBuildHeight());
+        return !Blocks.BEDROCK.equals(chunk.getBlockState(bedrockCheckBlock).getBlock());
     }
 
     /**
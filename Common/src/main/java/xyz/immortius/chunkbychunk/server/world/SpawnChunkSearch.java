@@ -0,0 +1,120 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import net.minecraft.Util;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
+import xyz.immortius.chunkbychunk.common.util.SpiralIterator;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Searches for a chunk matching a predicate, spiralling out from a starting chunk. A window of candidate chunks ahead of the
+ * earliest undecided candidate is generated at once, and each is tested on a background worker as soon as it is ready.
+ * The result is the first matching chunk in spiral order, as a one-at-a-time search would find.
+ * <p>
+ * The search blocks the calling (server) thread, running the level's chunk tasks while it waits, so it is only intended
+ * for use before players can join.
+ */
+public class SpawnChunkSearch {
+
+    private static final TicketType<ChunkPos> SEARCH_TICKET = TicketType.create(ChunkByChunkConstants.MOD_ID + "_spawn_search", Comparator.comparingLong(ChunkPos::toLong));
+    private static final int WINDOW_SIZE = 32;
+    private static final long REPORT_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+
+    private final ServerLevel level;
+    private final Predicate<ChunkAccess> predicate;
+    private final int maxAttempts;
+    private final long timeLimitMs;
+
+    /**
+     * @param level The level to search
+     * @param predicate The predicate the chunk must match. This is tested on background threads.
+     * @param maxAttempts The maximum number of chunks to test
+     * @param timeLimitMs The maximum time to search for
+     */
+    public SpawnChunkSearch(ServerLevel level, Predicate<ChunkAccess> predicate, int maxAttempts, long timeLimitMs) {
+        this.level = level;
+        this.predicate = predicate;
+        this.maxAttempts = maxAttempts;
+        this.timeLimitMs = timeLimitMs;
+    }
+
+    /**
+     * @param start The chunk to spiral out from
+     * @return The first matching chunk, or null if none was found within the attempt or time limit
+     */
+    @Nullable
+    public ChunkPos find(ChunkPos start) {
+        ServerChunkCache chunkSource = level.getChunkSource();
+        SpiralIterator iterator = new SpiralIterator(start.x, start.z);
+        List<ChunkPos> candidates = new ArrayList<>();
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        long startTime = Util.getMillis();
+        long lastReportTime = startTime;
+        ChunkPos found = null;
+        int decided = 0;
+        try {
+            while (decided < maxAttempts && found == null) {
+                while (results.size() < Math.min(maxAttempts, decided + WINDOW_SIZE)) {
+                    ChunkPos pos = new ChunkPos(iterator.getX(), iterator.getY());
+                    iterator.next();
+                    candidates.add(pos);
+                    results.add(request(chunkSource, pos));
+                }
+                CompletableFuture<Boolean> result = results.get(decided);
+                while (!result.isDone() && Util.getMillis() - startTime < timeLimitMs) {
+                    if (!chunkSource.pollTask()) {
+                        Thread.yield();
+                        LockSupport.parkNanos("waiting for spawn chunk search", 100000L);
+                    }
+                }
+                if (!result.isDone()) {
+                    ChunkByChunkConstants.LOGGER.warn("Spawn chunk search timed out after {} chunks", decided);
+                    break;
+                }
+                if (result.join()) {
+                    found = candidates.get(decided);
+                } else {
+                    chunkSource.removeRegionTicket(SEARCH_TICKET, candidates.get(decided), 0, candidates.get(decided));
+                }
+                decided++;
+                if (Util.getMillis() - lastReportTime > REPORT_INTERVAL_MS) {
+                    lastReportTime = Util.getMillis();
+                    ChunkByChunkConstants.LOGGER.info("Searching for spawn chunk: checked {} of {} chunks", decided, maxAttempts);
+                }
+            }
+        } finally {
+            for (int i = decided; i < candidates.size(); i++) {
+                results.get(i).cancel(false);
+                chunkSource.removeRegionTicket(SEARCH_TICKET, candidates.get(i), 0, candidates.get(i));
+            }
+        }
+        if (found != null) {
+            ChunkByChunkConstants.LOGGER.info("Found appropriate spawn chunk in {} attempts ({} ms)", decided - 1, Util.getMillis() - startTime);
+            chunkSource.removeRegionTicket(SEARCH_TICKET, found, 0, found);
+        }
+        return found;
+    }
+
+    private CompletableFuture<Boolean> request(ServerChunkCache chunkSource, ChunkPos pos) {
+        chunkSource.addRegionTicket(SEARCH_TICKET, pos, 0, pos);
+        return chunkSource.getChunkFuture(pos.x, pos.z, ChunkStatus.FULL, true)
+                .thenApplyAsync(result -> result.left().map(predicate::test).orElse(false), Util.backgroundExecutor())
+                .exceptionally(e -> {
+                    ChunkByChunkConstants.LOGGER.warn("Failed to check candidate spawn chunk {}", pos, e);
+                    return false;
+                });
+    }
+}
@@ -0,0 +1,234 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import com.mojang.datafixers.util.Either;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.saveddata.SavedData;
+import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
+import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Keeps pools of fully generated source chunks ready to be spawned from, so that spawns that don't need a specific source
+ * position don't have to wait for generation. Pools are refilled while the chunk spawn controller is idle. Pooled chunks are
+ * held loaded by a ticket until they are taken.
+ * <p>
+ * Positions are handed out in a shuffled order within one region file at a time, so a pool touches few region files while
+ * the chosen chunks still appear random. Only the most recently used regions are remembered to avoid reuse - regions are
+ * picked at random from millions, so older ones are unlikely to be picked again anyway.
+ */
+public class SpawnSourcePool extends SavedData {
+
+    private static final TicketType<ChunkPos> POOL_TICKET = TicketType.create(ChunkByChunkConstants.MOD_ID + "_spawn_pool", Comparator.comparingLong(ChunkPos::toLong));
+    private static final int REGION_SIZE = 32;
+    private static final int CHUNKS_PER_REGION = REGION_SIZE * REGION_SIZE;
+    private static final int MAX_REGION = Short.MAX_VALUE / REGION_SIZE;
+    private static final int MAX_USED_REGIONS = 1024;
+
+    private final MinecraftServer server;
+    private final Map<ResourceKey<Level>, Pool> pools = new LinkedHashMap<>();
+    private final Random random = new Random();
+
+    public static SpawnSourcePool get(MinecraftServer server) {
+        return server.getLevel(Level.OVERWORLD).getChunkSource().getDataStorage().computeIfAbsent((tag) -> SpawnSourcePool.load(server, tag), () -> new SpawnSourcePool(server), "spawnsourcepool");
+    }
+
+    private static SpawnSourcePool load(MinecraftServer server, CompoundTag tag) {
+        SpawnSourcePool pool = new SpawnSourcePool(server);
+        pool.loadInternal(tag);
+        return pool;
+    }
+
+    private SpawnSourcePool(MinecraftServer server) {
+        this.server = server;
+    }
+
+    private void loadInternal(CompoundTag tag) {
+        ListTag poolsTag = tag.getList("pools", ListTag.TAG_COMPOUND);
+        for (int i = 0; i < poolsTag.size(); i++) {
+            CompoundTag poolTag = poolsTag.getCompound(i);
+            ResourceKey<Level> levelKey = ResourceKey.create(Registries.DIMENSION, new ResourceLocation(poolTag.getString("level")));
+            ServerLevel level = server.getLevel(levelKey);
+            if (level == null) {
+                continue;
+            }
+            Pool pool = new Pool();
+            pool.regionX = poolTag.getInt("regionX");
+            pool.regionZ = poolTag.getInt("regionZ");
+            pool.regionSeed = poolTag.getLong("regionSeed");
+            pool.regionIndex = poolTag.getInt("regionIndex");
+            for (long region : poolTag.getLongArray("usedRegions")) {
+                pool.addUsedRegion(region);
+            }
+            for (long pos : poolTag.getLongArray("positions")) {
+                pool.request(level, new ChunkPos(pos));
+            }
+            pools.put(levelKey, pool);
+        }
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        ListTag poolsTag = new ListTag();
+        for (Map.Entry<ResourceKey<Level>, Pool> entry : pools.entrySet()) {
+            Pool pool = entry.getValue();
+            CompoundTag poolTag = new CompoundTag();
+            poolTag.putString("level", entry.getKey().location().toString());
+            poolTag.putInt("regionX", pool.regionX);
+            poolTag.putInt("regionZ", pool.regionZ);
+            poolTag.putLong("regionSeed", pool.regionSeed);
+            poolTag.putInt("regionIndex", pool.regionIndex);
+            poolTag.put("usedRegions", new LongArrayTag(pool.usedRegions.toLongArray()));
+            poolTag.put("positions", new LongArrayTag(pool.positions().mapToLong(ChunkPos::toLong).toArray()));
+            poolsTag.add(poolTag);
+        }
+        tag.put("pools", poolsTag);
+        return tag;
+    }
+
+    public void tick() {
+        if (ChunkSpawnController.get(server).isBusy()) {
+            return;
+        }
+        int randomPoolSize = ChunkByChunkConfig.get().getGeneration().getRandomSpawnPoolSize();
+        int themedPoolSize = ChunkByChunkConfig.get().getGeneration().getThemedSpawnPoolSize();
+        for (ServerLevel level : server.getAllLevels()) {
+            if (level.getChunkSource().getGenerator() instanceof SkyChunkGenerator generator) {
+                refill(generator.getGenerationLevel(), generator.isRandomChunkSpawnerAllowed() ? randomPoolSize : 0);
+                for (ResourceKey<Level> themeLevel : generator.getBiomeDimensions()) {
+                    refill(themeLevel, themedPoolSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a generated chunk from the pool for the given level
+     * @param sourceLevel The level to take a source chunk from
+     * @return The position of a generated chunk, or null if none is ready
+     */
+    @Nullable
+    public ChunkPos take(ResourceKey<Level> sourceLevel) {
+        Pool pool = pools.get(sourceLevel);
+        ServerLevel level = server.getLevel(sourceLevel);
+        if (pool == null || level == null) {
+            return null;
+        }
+        pool.collectReady();
+        ChunkPos pos = pool.ready.pollFirst();
+        if (pos != null) {
+            level.getChunkSource().removeRegionTicket(POOL_TICKET, pos, 0, pos);
+            setDirty();
+        }
+        return pos;
+    }
+
+    private void refill(ResourceKey<Level> levelKey, int size) {
+        ServerLevel level = server.getLevel(levelKey);
+        if (level == null || (size == 0 && !pools.containsKey(levelKey))) {
+            return;
+        }
+        Pool pool = pools.computeIfAbsent(levelKey, k -> new Pool());
+        pool.collectReady();
+        while (pool.ready.size() > size) {
+            ChunkPos pos = pool.ready.removeLast();
+            level.getChunkSource().removeRegionTicket(POOL_TICKET, pos, 0, pos);
+            setDirty();
+        }
+        // Only one chunk at a time per pool, so refilling never competes noticeably with the server
+        if (pool.pending.isEmpty() && pool.ready.size() < size) {
+            pool.request(level, pool.nextPosition(random));
+            setDirty();
+        }
+    }
+
+    private static class Pool {
+        private final Deque<ChunkPos> ready = new ArrayDeque<>();
+        private final Deque<PendingChunk> pending = new ArrayDeque<>();
+        private final LongLinkedOpenHashSet usedRegions = new LongLinkedOpenHashSet();
+        private int regionX;
+        private int regionZ;
+        private long regionSeed;
+        private int regionIndex = CHUNKS_PER_REGION;
+        // Shuffled order of the current region's chunks, derived from the region seed
+        @Nullable
+        private int[] order;
+
+        void request(ServerLevel level, ChunkPos pos) {
+            level.getChunkSource().addRegionTicket(POOL_TICKET, pos, 0, pos);
+            pending.add(new PendingChunk(pos, level.getChunkSource().getChunkFuture(pos.x, pos.z, ChunkStatus.FULL, true)));
+        }
+
+        void collectReady() {
+            while (!pending.isEmpty() && pending.peekFirst().future().isDone()) {
+                ready.add(pending.removeFirst().pos());
+            }
+        }
+
+        Stream<ChunkPos> positions() {
+            return Stream.concat(ready.stream(), pending.stream().map(PendingChunk::pos));
+        }
+
+        boolean addUsedRegion(long region) {
+            if (!usedRegions.add(region)) {
+                return false;
+            }
+            while (usedRegions.size() > MAX_USED_REGIONS) {
+                usedRegions.removeFirstLong();
+            }
+            return true;
+        }
+
+        ChunkPos nextPosition(Random random) {
+            if (regionIndex >= CHUNKS_PER_REGION) {
+                do {
+                    regionX = random.nextInt(-MAX_REGION, MAX_REGION);
+                    regionZ = random.nextInt(-MAX_REGION, MAX_REGION);
+                } while (!addUsedRegion(ChunkPos.asLong(regionX, regionZ)));
+                regionSeed = random.nextLong();
+                regionIndex = 0;
+                order = null;
+            }
+            if (order == null) {
+                order = shuffledOrder(regionSeed);
+            }
+            int index = order[regionIndex++];
+            return new ChunkPos(regionX * REGION_SIZE + index % REGION_SIZE, regionZ * REGION_SIZE + index / REGION_SIZE);
+        }
+
+        private static int[] shuffledOrder(long seed) {
+            int[] result = new int[CHUNKS_PER_REGION];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = i;
+            }
+            Random shuffle = new Random(seed);
+            for (int i = result.length - 1; i > 0; i--) {
+                int swap = shuffle.nextInt(i + 1);
+                int temp = result[i];
+                result[i] = result[swap];
+                result[swap] = temp;
+            }
+            return result;
+        }
+    }
+
+    private record PendingChunk(ChunkPos pos, CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>> future) {
+    }
+}
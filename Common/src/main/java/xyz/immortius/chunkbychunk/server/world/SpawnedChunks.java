@@ -0,0 +1,173 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.saveddata.SavedData;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
+import xyz.immortius.chunkbychunk.interop.Services;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registry of the chunks that have been spawned in a sky dimension, so whether a chunk is spawned can be answered
+ * without reading (or loading) the chunk. Chunks are registered by the chunk spawn controller as it copies their
+ * bottom layer - the same point at which they gain the bedrock that marks a spawned chunk.
+ * <p>
+ * A registry created with its world is complete, so chunks not in it are known to be empty. Registries created for
+ * existing worlds don't know about chunks spawned before they existed, so chunks not in them are checked in the world,
+ * and registered if found to be spawned. The most recent chunks found to be empty are remembered (but not saved), so
+ * repeated checks of the same chunks don't read them each time.
+ * <p>
+ * Registries are mirrored to clients - in full when they join, and then as each chunk is registered.
+ */
+public class SpawnedChunks extends SavedData {
+
+    /** Chunks sent to clients in each sync - 512KiB, well within the size limit of a packet */
+    private static final int MAX_CHUNKS_PER_SYNC = 65536;
+    private static final int MAX_KNOWN_EMPTY = 4096;
+
+    private final LongSet chunks = new LongOpenHashSet();
+    private final LongLinkedOpenHashSet knownEmpty = new LongLinkedOpenHashSet();
+    private boolean complete;
+    private transient boolean loaded;
+
+    public static SpawnedChunks get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(SpawnedChunks::load, SpawnedChunks::new, "spawnedchunks");
+    }
+
+    /**
+     * Registers a chunk as spawned, and sends it to clients if it is newly spawned
+     * @param level The level of the chunk
+     * @param pos The chunk position
+     */
+    public static void markSpawned(ServerLevel level, ChunkPos pos) {
+        if (get(level).add(pos)) {
+            Services.PLATFORM.broadcastSpawnedChunk(level.getServer(), new SpawnedChunksMirror.Update(level.dimension(), pos.toLong()));
+        }
+    }
+
+    /**
+     * @param server The server
+     * @return The spawned chunks of every sky dimension to send to a client, in batches small enough to send
+     */
+    public static List<SpawnedChunksMirror.Sync> createSyncs(MinecraftServer server) {
+        List<SpawnedChunksMirror.Sync> syncs = new ArrayList<>();
+        for (ServerLevel level : server.getAllLevels()) {
+            if (level.getChunkSource().getGenerator() instanceof SkyChunkGenerator) {
+                SpawnedChunks spawnedChunks = get(level);
+                long[] chunks;
+                boolean complete;
+                synchronized (spawnedChunks) {
+                    chunks = spawnedChunks.chunks.toLongArray();
+                    complete = spawnedChunks.complete;
+                }
+                int start = 0;
+                do {
+                    int end = Math.min(start + MAX_CHUNKS_PER_SYNC, chunks.length);
+                    syncs.add(new SpawnedChunksMirror.Sync(level.dimension(), complete && end == chunks.length, Arrays.copyOfRange(chunks, start, end)));
+                    start = end;
+                } while (start < chunks.length);
+            }
+        }
+        return syncs;
+    }
+
+    private static SpawnedChunks load(CompoundTag tag) {
+        SpawnedChunks spawnedChunks = new SpawnedChunks();
+        for (long pos : tag.getLongArray("chunks")) {
+            spawnedChunks.chunks.add(pos);
+        }
+        spawnedChunks.complete = tag.getBoolean("complete");
+        spawnedChunks.loaded = true;
+        return spawnedChunks;
+    }
+
+    private SpawnedChunks() {
+    }
+
+    @Override
+    public synchronized CompoundTag save(CompoundTag tag) {
+        tag.put("chunks", new LongArrayTag(chunks.toLongArray()));
+        tag.putBoolean("complete", complete);
+        return tag;
+    }
+
+    /**
+     * Marks this registry as complete, if it has been created with a new world
+     */
+    public synchronized void markCompleteIfNew() {
+        if (!loaded && !complete) {
+            complete = true;
+            setDirty();
+        }
+    }
+
+    /**
+     * @param pos A chunk position
+     * @return Whether the chunk is registered as spawned
+     */
+    public synchronized boolean contains(ChunkPos pos) {
+        return chunks.contains(pos.toLong());
+    }
+
+    /**
+     * @param pos A chunk position
+     * @return Whether the chunk is known to be empty, having recently been checked in the world
+     */
+    public synchronized boolean isKnownEmpty(ChunkPos pos) {
+        return complete || knownEmpty.contains(pos.toLong());
+    }
+
+    /**
+     * Records that a chunk not in an incomplete registry has been checked in the world and found to be empty
+     * @param pos The chunk position
+     */
+    public synchronized void markEmpty(ChunkPos pos) {
+        if (!complete && !chunks.contains(pos.toLong()) && knownEmpty.add(pos.toLong()) && knownEmpty.size() > MAX_KNOWN_EMPTY) {
+            knownEmpty.removeFirstLong();
+        }
+    }
+
+    /**
+     * @return Whether all spawned chunks are registered
+     */
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return The bounds of the registered chunks, or null if there are none
+     */
+    @Nullable
+    public synchronized SkyChunkGenerator.SpawnedArea getBounds() {
+        SkyChunkGenerator.SpawnedArea area = null;
+        for (long pos : chunks) {
+            ChunkPos chunkPos = new ChunkPos(pos);
+            area = (area == null) ? new SkyChunkGenerator.SpawnedArea(chunkPos.x, chunkPos.z, chunkPos.x, chunkPos.z) : area.include(chunkPos);
+        }
+        return area;
+    }
+
+    /**
+     * Registers a chunk as spawned
+     * @param pos The chunk position
+     * @return Whether the chunk was newly registered
+     */
+    public synchronized boolean add(ChunkPos pos) {
+        if (chunks.add(pos.toLong())) {
+            knownEmpty.remove(pos.toLong());
+            setDirty();
+            return true;
+        }
+        return false;
+    }
+}
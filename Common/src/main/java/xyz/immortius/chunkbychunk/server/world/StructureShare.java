@@ -0,0 +1,144 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.StructureStart;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shares the structure starts and references a generator creates between all dimensions generating with the same generator
+ * instance - such as a sky dimension and its generation dimension. Whichever dimension reaches a chunk first creates its
+ * structures, and the other dimension reuses them. Entries are evicted once the cache is full, in which case they are
+ * simply created again.
+ * <p>
+ * Structure starts are mutable (references are counted on them, and pieces may be changed as they are placed), so they are
+ * shared in their saved form and each dimension loads its own copy.
+ */
+public final class StructureShare {
+
+    private static final int MAX_CHUNKS = 4096;
+    private static final Map<ChunkGenerator, StructureShare> SHARED_STRUCTURES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Cache<Long, List<CompoundTag>> starts = CacheBuilder.newBuilder().maximumSize(MAX_CHUNKS).build();
+    private final Cache<Long, Map<Structure, LongSet>> references = CacheBuilder.newBuilder().maximumSize(MAX_CHUNKS).build();
+    private final Map<Structure, AtomicInteger> generatedVersions = new ConcurrentHashMap<>();
+
+    /**
+     * @param generator The generator creating structures
+     * @return The structure share for the generator
+     */
+    public static StructureShare forGenerator(ChunkGenerator generator) {
+        return SHARED_STRUCTURES.computeIfAbsent(generator, x -> new StructureShare());
+    }
+
+    /**
+     * @param generator The generator
+     * @return The structure share for the generator, or null if structures aren't shared for it
+     */
+    @Nullable
+    public static StructureShare getIfShared(ChunkGenerator generator) {
+        return SHARED_STRUCTURES.get(generator);
+    }
+
+    private StructureShare() {
+    }
+
+    /**
+     * Applies previously shared structure starts to a chunk
+     * @param chunk The chunk to apply starts to
+     * @param context The context to load the starts with
+     * @param seed The seed of the level
+     * @return Whether starts were available for the chunk
+     */
+    public boolean applyStarts(ChunkAccess chunk, StructurePieceSerializationContext context, long seed) {
+        List<CompoundTag> chunkStarts = starts.getIfPresent(chunk.getPos().toLong());
+        if (chunkStarts == null) {
+            return false;
+        }
+        Map<Structure, StructureStart> loadedStarts = new HashMap<>();
+        for (CompoundTag startTag : chunkStarts) {
+            StructureStart start = StructureStart.loadStaticStart(context, startTag, seed);
+            if (start == null) {
+                // Fall back to creating the starts if any can't be loaded, rather than apply some of them
+                return false;
+            }
+            loadedStarts.put(start.getStructure(), start);
+        }
+        chunk.setAllStarts(loadedStarts);
+        return true;
+    }
+
+    /**
+     * Shares the structure starts created for a chunk
+     * @param chunk The chunk that has had its starts created
+     * @param context The context to save the starts with
+     */
+    public void publishStarts(ChunkAccess chunk, StructurePieceSerializationContext context) {
+        List<CompoundTag> chunkStarts = new ArrayList<>();
+        for (StructureStart start : chunk.getAllStarts().values()) {
+            if (start.isValid()) {
+                chunkStarts.add(start.createTag(context, chunk.getPos()));
+                generatedVersions.computeIfAbsent(start.getStructure(), k -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+        starts.asMap().putIfAbsent(chunk.getPos().toLong(), chunkStarts);
+    }
+
+    /**
+     * @param structure A structure
+     * @return A count of the starts of the structure created by the generator, in any dimension. This changes whenever
+     * a new start of the structure is created.
+     */
+    public int getGeneratedVersion(Structure structure) {
+        AtomicInteger version = generatedVersions.get(structure);
+        return (version != null) ? version.get() : 0;
+    }
+
+    /**
+     * Applies previously shared structure references to a chunk
+     * @param chunk The chunk to apply references to
+     * @return Whether references were available for the chunk
+     */
+    public boolean applyReferences(ChunkAccess chunk) {
+        Map<Structure, LongSet> chunkReferences = references.getIfPresent(chunk.getPos().toLong());
+        if (chunkReferences == null) {
+            return false;
+        }
+        // Chunks add to their reference sets, so each chunk needs its own copy
+        chunk.setAllReferences(copyReferences(chunkReferences));
+        return true;
+    }
+
+    /**
+     * Shares the structure references created for a chunk
+     * @param chunk The chunk that has had its references created
+     */
+    public void publishReferences(ChunkAccess chunk) {
+        references.asMap().putIfAbsent(chunk.getPos().toLong(), copyReferences(chunk.getAllReferences()));
+    }
+
+    private static Map<Structure, LongSet> copyReferences(Map<Structure, LongSet> source) {
+        Map<Structure, LongSet> result = new HashMap<>();
+        for (Map.Entry<Structure, LongSet> entry : source.entrySet()) {
+            result.put(entry.getKey(), new LongOpenHashSet(entry.getValue()));
+        }
+        return result;
+    }
+}
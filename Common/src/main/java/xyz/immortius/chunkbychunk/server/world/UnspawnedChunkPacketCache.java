@@ -0,0 +1,66 @@
+package xyz.immortius.chunkbychunk.server.world;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkPacketData;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+/**
+ * Caches the encoded chunk data sent to clients for unspawned chunks of sky dimensions. A pristine chunk is unchanged since
+ * it was generated, so its encoded data can be reused for every player it is sent to, and every time it is sent again
+ * (such as when a player moves back into view of it), rather than encoding it again. Entries are dropped when their chunk
+ * stops being pristine. The encoded data is immutable once created, so it can be shared across players and packets.
+ * <p>
+ * Only the encoding is saved - packets are still compressed per connection.
+ */
+public final class UnspawnedChunkPacketCache {
+
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final Cache<ChunkKey, ClientboundLevelChunkPacketData> CHUNK_DATA = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+    private UnspawnedChunkPacketCache() {
+    }
+
+    /**
+     * @param chunk The chunk to create packet data for
+     * @return The encoded chunk data, reused from an earlier send of the chunk if possible
+     */
+    public static ClientboundLevelChunkPacketData getChunkData(LevelChunk chunk) {
+        if (!(chunk.getLevel() instanceof ServerLevel level)
+                || !(chunk instanceof PristineChunk pristineChunk)
+                || !pristineChunk.isPristine()) {
+            return new ClientboundLevelChunkPacketData(chunk);
+        }
+        ChunkKey key = new ChunkKey(level.dimension(), chunk.getPos().toLong());
+        ClientboundLevelChunkPacketData data = CHUNK_DATA.getIfPresent(key);
+        if (data == null) {
+            data = new ClientboundLevelChunkPacketData(chunk);
+            CHUNK_DATA.put(key, data);
+        }
+        return data;
+    }
+
+    /**
+     * Drops the cached data of a chunk, when it is no longer pristine
+     * @param level The level of the chunk
+     * @param pos The position of the chunk
+     */
+    public static void invalidate(ServerLevel level, ChunkPos pos) {
+        CHUNK_DATA.invalidate(new ChunkKey(level.dimension(), pos.toLong()));
+    }
+
+    /**
+     * Drops all cached data, such as when a different world is started
+     */
+    public static void clear() {
+        CHUNK_DATA.invalidateAll();
+    }
+
+    private record ChunkKey(ResourceKey<Level> level, long pos) {
+    }
+}
@@ -1,6 +1,7 @@
 package xyz.immortius.chunkbychunk.fabric;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.gui.screens.MenuScreens;
 import org.apache.logging.log4j.LogManager;
@@ -10,6 +11,7 @@ import xyz.immortius.chunkbychunk.client.screens.WorldForgeScreen;
 import xyz.immortius.chunkbychunk.client.screens.WorldMenderScreen;
 import xyz.immortius.chunkbychunk.client.screens.WorldScannerScreen;
 import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
 
 /**
@@ -30,6 +32,13 @@ public class ChunkByChunkClientMod implements ClientModInitializer {
             LOGGER.info("Receiving config from server");
             ChunkByChunkConfig.get().getGameplayConfig().setBlockPlacementAllowedOutsideSpawnedChunks(buf.readBoolean());
         });
+        ClientPlayNetworking.registerGlobalReceiver(ChunkByChunkMod.SPAWNED_CHUNKS_PACKET, (client, handler, buf, responseSender) -> {
+            SpawnedChunksMirror.Sync.read(buf).apply();
+        });
+        ClientPlayNetworking.registerGlobalReceiver(ChunkByChunkMod.SPAWNED_CHUNK_PACKET, (client, handler, buf, responseSender) -> {
+            SpawnedChunksMirror.Update.read(buf).apply();
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> SpawnedChunksMirror.clear());
     }
 
 }
@@ -36,12 +36,15 @@ import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
 import xyz.immortius.chunkbychunk.common.CommonEventHandler;
 import xyz.immortius.chunkbychunk.common.blockEntities.*;
 import xyz.immortius.chunkbychunk.common.blocks.*;
+import xyz.immortius.chunkbychunk.server.commands.PregenCommand;
 import xyz.immortius.chunkbychunk.server.commands.SpawnChunkCommand;
 import xyz.immortius.chunkbychunk.common.menus.BedrockChestMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldForgeMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldMenderMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldScannerMenu;
 import xyz.immortius.chunkbychunk.server.world.SkyChunkGenerator;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
+import xyz.immortius.chunkbychunk.server.world.SpawnedChunks;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
 import xyz.immortius.chunkbychunk.config.system.ConfigSystem;
 import xyz.immortius.chunkbychunk.server.ServerEventHandler;
@@ -91,6 +94,8 @@ public class ChunkByChunkMod implements ModInitializer {
     public static SoundEvent SPAWN_CHUNK_SOUND_EVENT;
 
     public static ResourceLocation CONFIG_PACKET = new ResourceLocation(ChunkByChunkConstants.MOD_ID, "config");
+    public static ResourceLocation SPAWNED_CHUNKS_PACKET = new ResourceLocation(ChunkByChunkConstants.MOD_ID, "spawned_chunks");
+    public static ResourceLocation SPAWNED_CHUNK_PACKET = new ResourceLocation(ChunkByChunkConstants.MOD_ID, "spawned_chunk");
 
     public static List<ItemStack> biomeThemedBlockItems;
 
@@ -170,12 +175,18 @@ public class ChunkByChunkMod implements ModInitializer {
 
         CommandRegistrationCallback.EVENT.register((dispatcher, dedicated, environment) -> {
             SpawnChunkCommand.register(dispatcher);
+            PregenCommand.register(dispatcher);
         });
 
         ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
             FriendlyByteBuf buffer = PacketByteBufs.create();
             buffer.writeBoolean(ChunkByChunkConfig.get().getGameplayConfig().isBlockPlacementAllowedOutsideSpawnedChunks());
             ServerPlayNetworking.send(handler.getPlayer(), CONFIG_PACKET, buffer);
+            for (SpawnedChunksMirror.Sync sync : SpawnedChunks.createSyncs(server)) {
+                FriendlyByteBuf spawnedChunksBuffer = PacketByteBufs.create();
+                sync.write(spawnedChunksBuffer);
+                ServerPlayNetworking.send(handler.getPlayer(), SPAWNED_CHUNKS_PACKET, spawnedChunksBuffer);
+            }
         });
 
         UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
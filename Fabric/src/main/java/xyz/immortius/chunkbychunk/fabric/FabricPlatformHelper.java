@@ -1,5 +1,9 @@
 package xyz.immortius.chunkbychunk.fabric;
 
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.inventory.MenuType;
 import net.minecraft.world.item.BucketItem;
@@ -14,6 +18,7 @@ import xyz.immortius.chunkbychunk.common.menus.BedrockChestMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldForgeMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldMenderMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldScannerMenu;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 import xyz.immortius.chunkbychunk.mixins.BucketFluidAccessor;
 import xyz.immortius.chunkbychunk.interop.CBCPlatformHelper;
 import xyz.immortius.chunkbychunk.mixins.BucketFluidAccessor;
@@ -156,4 +161,13 @@ public final class FabricPlatformHelper implements CBCPlatformHelper {
         return null;
     }
 
+    // Networking
+
+    @Override
+    public void broadcastSpawnedChunk(MinecraftServer server, SpawnedChunksMirror.Update update) {
+        FriendlyByteBuf buffer = PacketByteBufs.create();
+        update.write(buffer);
+        server.getPlayerList().broadcastAll(ServerPlayNetworking.createS2CPacket(ChunkByChunkMod.SPAWNED_CHUNK_PACKET, buffer));
+    }
+
 }
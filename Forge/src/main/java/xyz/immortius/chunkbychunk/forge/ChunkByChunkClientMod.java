@@ -1,8 +1,11 @@
 package xyz.immortius.chunkbychunk.forge;
 
 import net.minecraftforge.client.ConfigScreenHandler;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.fml.ModLoadingContext;
 import xyz.immortius.chunkbychunk.client.screens.ChunkByChunkConfigScreen;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 
 public final class ChunkByChunkClientMod {
 
@@ -12,4 +15,12 @@ public final class ChunkByChunkClientMod {
     public static void registerConfigScreen() {
         ModLoadingContext.get().registerExtensionPoint(ConfigScreenHandler.ConfigScreenFactory.class, () -> new ConfigScreenHandler.ConfigScreenFactory((minecraft, screen) -> new ChunkByChunkConfigScreen(screen)));
     }
+
+    public static void registerClientEvents() {
+        MinecraftForge.EVENT_BUS.addListener(ChunkByChunkClientMod::onLoggingOut);
+    }
+
+    private static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        SpawnedChunksMirror.clear();
+    }
 }
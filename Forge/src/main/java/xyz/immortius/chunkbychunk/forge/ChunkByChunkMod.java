@@ -47,12 +47,15 @@ import xyz.immortius.chunkbychunk.common.ChunkByChunkConstants;
 import xyz.immortius.chunkbychunk.common.CommonEventHandler;
 import xyz.immortius.chunkbychunk.common.blockEntities.*;
 import xyz.immortius.chunkbychunk.common.blocks.*;
+import xyz.immortius.chunkbychunk.server.commands.PregenCommand;
 import xyz.immortius.chunkbychunk.server.commands.SpawnChunkCommand;
 import xyz.immortius.chunkbychunk.common.menus.BedrockChestMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldForgeMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldMenderMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldScannerMenu;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 import xyz.immortius.chunkbychunk.server.world.SkyChunkGenerator;
+import xyz.immortius.chunkbychunk.server.world.SpawnedChunks;
 import xyz.immortius.chunkbychunk.config.ChunkByChunkConfig;
 import xyz.immortius.chunkbychunk.config.system.ConfigSystem;
 import xyz.immortius.chunkbychunk.server.ServerEventHandler;
@@ -108,7 +111,7 @@ public class ChunkByChunkMod {
 
     public static final List<Supplier<ItemStack>> THEMED_SPAWN_CHUNK_ITEMS = new ArrayList<>();
 
-    private static final String PROTOCOL_VERSION = "1";
+    private static final String PROTOCOL_VERSION = "2";
     public static final SimpleChannel CONFIG_CHANNEL = NetworkRegistry.newSimpleChannel(new ResourceLocation(ChunkByChunkConstants.MOD_ID, "configchannel"), () -> PROTOCOL_VERSION, PROTOCOL_VERSION::equals, PROTOCOL_VERSION::equals);
 
     static {
@@ -144,9 +147,26 @@ public class ChunkByChunkMod {
                     contextSupplier.get().setPacketHandled(true);
                 },
                 Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+        CONFIG_CHANNEL.registerMessage(packetId++, SpawnedChunksMirror.Sync.class,
+                SpawnedChunksMirror.Sync::write,
+                SpawnedChunksMirror.Sync::read,
+                (sync, contextSupplier) -> {
+                    sync.apply();
+                    contextSupplier.get().setPacketHandled(true);
+                },
+                Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+        CONFIG_CHANNEL.registerMessage(packetId++, SpawnedChunksMirror.Update.class,
+                SpawnedChunksMirror.Update::write,
+                SpawnedChunksMirror.Update::read,
+                (update, contextSupplier) -> {
+                    update.apply();
+                    contextSupplier.get().setPacketHandled(true);
+                },
+                Optional.of(NetworkDirection.PLAY_TO_CLIENT));
     }
 
     private void clientSetup(final FMLClientSetupEvent event) {
+        ChunkByChunkClientMod.registerClientEvents();
         event.enqueueWork(() -> {
             ChunkByChunkClientMod.registerConfigScreen();
             MenuScreens.register(BEDROCK_CHEST_MENU.get(), BedrockChestScreen::new);
@@ -197,6 +217,7 @@ public class ChunkByChunkMod {
     @SubscribeEvent
     public void registerCommands(RegisterCommandsEvent event) {
         SpawnChunkCommand.register(event.getDispatcher());
+        PregenCommand.register(event.getDispatcher());
     }
 
     @SubscribeEvent
@@ -221,6 +242,11 @@ public class ChunkByChunkMod {
     @SubscribeEvent
     public void onServerLogin(PlayerEvent.PlayerLoggedInEvent event) {
         CONFIG_CHANNEL.send(PacketDistributor.PLAYER.with(() -> (ServerPlayer)(event.getEntity())), new ConfigMessage(ChunkByChunkConfig.get().getGameplayConfig().isBlockPlacementAllowedOutsideSpawnedChunks()));
+        if (event.getEntity() instanceof ServerPlayer player) {
+            for (SpawnedChunksMirror.Sync sync : SpawnedChunks.createSyncs(player.getServer())) {
+                CONFIG_CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), sync);
+            }
+        }
     }
 
     @SubscribeEvent
@@ -1,5 +1,6 @@
 package xyz.immortius.chunkbychunk.forge;
 
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.world.inventory.MenuType;
 import net.minecraft.world.item.BucketItem;
@@ -8,12 +9,14 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.material.Fluid;
+import net.minecraftforge.network.PacketDistributor;
 import xyz.immortius.chunkbychunk.common.blockEntities.*;
 import xyz.immortius.chunkbychunk.common.blocks.SpawnChunkBlock;
 import xyz.immortius.chunkbychunk.common.menus.BedrockChestMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldForgeMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldMenderMenu;
 import xyz.immortius.chunkbychunk.common.menus.WorldScannerMenu;
+import xyz.immortius.chunkbychunk.common.util.SpawnedChunksMirror;
 import xyz.immortius.chunkbychunk.interop.CBCPlatformHelper;
 
 import java.util.List;
@@ -144,4 +147,11 @@ public final class ForgePlatformHelper implements CBCPlatformHelper {
     public Fluid getFluidContent(BucketItem bucketItem) {
         return bucketItem.getFluid();
     }
+
+    // Networking
+
+    @Override
+    public void broadcastSpawnedChunk(MinecraftServer server, SpawnedChunksMirror.Update update) {
+        ChunkByChunkMod.CONFIG_CHANNEL.send(PacketDistributor.ALL.noArg(), update);
+    }
 }